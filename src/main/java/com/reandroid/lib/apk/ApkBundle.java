@@ -72,6 +72,7 @@ public class ApkBundle {
         mergedModule.getApkArchive().add(inputSource);
 
         StringPoolMerger poolMerger = new StringPoolMerger();
+        poolMerger.setParallel(true);
 
         for(ApkModule apkModule:getModules()){
             if(!apkModule.hasTableBlock()){
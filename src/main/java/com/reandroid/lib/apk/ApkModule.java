@@ -136,8 +136,6 @@ public class ApkModule {
             }
             logVerbose("Dir validated: '"+path+"' -> '"+pathNew+"'");
         }
-        TableStringPool stringPool= getTableBlock().getTableStringPool();
-        stringPool.refreshUniqueIdMap();
         getTableBlock().refresh();
     }
     public void setResourcesRootDir(String dirName) throws IOException {
@@ -161,8 +159,6 @@ public class ApkModule {
             }
             logVerbose("Root changed: '"+path+"' -> '"+pathNew+"'");
         }
-        TableStringPool stringPool= getTableBlock().getTableStringPool();
-        stringPool.refreshUniqueIdMap();
         getTableBlock().refresh();
     }
     public List<ResFile> listResFiles() throws IOException {
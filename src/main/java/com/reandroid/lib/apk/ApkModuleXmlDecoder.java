@@ -25,6 +25,7 @@ import com.reandroid.lib.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.lib.arsc.chunk.xml.ResXmlBlock;
 import com.reandroid.lib.arsc.container.SpecTypePair;
 import com.reandroid.lib.arsc.decoder.ValueDecoder;
+import com.reandroid.lib.arsc.util.IntMap;
 import com.reandroid.lib.arsc.value.*;
 import com.reandroid.lib.common.EntryStore;
 import com.reandroid.lib.common.Frameworks;
@@ -41,12 +42,12 @@ import java.util.*;
 
  public class ApkModuleXmlDecoder {
     private final ApkModule apkModule;
-    private final Map<Integer, Set<ResConfig>> decodedEntries;
+    private final IntMap<Set<ResConfig>> decodedEntries;
     private XMLBagDecoder xmlBagDecoder;
     private final Set<String> mDecodedPaths;
     public ApkModuleXmlDecoder(ApkModule apkModule){
         this.apkModule=apkModule;
-        this.decodedEntries = new HashMap<>();
+        this.decodedEntries = new IntMap<>();
         this.mDecodedPaths = new HashSet<>();
     }
     public void decodeTo(File outDir)
@@ -22,9 +22,12 @@ import com.reandroid.lib.arsc.chunk.BaseChunk;
 import com.reandroid.lib.arsc.chunk.TableBlock;
 
 import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 public class BlockInputSource<T extends BaseChunk> extends ByteInputSource{
     private final T mBlock;
@@ -50,7 +53,13 @@ public class BlockInputSource<T extends BaseChunk> extends ByteInputSource{
     }
     @Override
     public long write(OutputStream outputStream) throws IOException {
-        return getBlock().writeBytes(outputStream);
+        WritableByteChannel channel;
+        if(outputStream instanceof FileOutputStream){
+            channel=((FileOutputStream)outputStream).getChannel();
+        }else {
+            channel=Channels.newChannel(outputStream);
+        }
+        return getBlock().writeBytes(channel);
     }
     @Override
     public byte[] getBytes() {
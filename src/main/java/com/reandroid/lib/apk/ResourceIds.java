@@ -19,6 +19,7 @@ import com.reandroid.lib.arsc.chunk.PackageBlock;
 import com.reandroid.lib.arsc.chunk.TableBlock;
 import com.reandroid.lib.arsc.group.EntryGroup;
 import com.reandroid.lib.arsc.pool.SpecStringPool;
+import com.reandroid.lib.arsc.util.IntMap;
 import com.reandroid.lib.json.JSONArray;
 import com.reandroid.lib.json.JSONObject;
 import com.reandroid.xml.*;
@@ -89,9 +90,9 @@ import java.util.*;
     }
 
     public static class Table implements Comparator<Table.Package>{
-        public final Map<Byte, Package> packageMap;
+        public final IntMap<Package> packageMap;
         public Table(){
-            this.packageMap = new HashMap<>();
+            this.packageMap = new IntMap<>();
         }
         public int applyTo(TableBlock tableBlock){
             int renameCount=0;
@@ -176,7 +177,7 @@ import java.util.*;
         public JSONObject toJson(){
             JSONObject jsonObject=new JSONObject();
             JSONArray jsonArray=new JSONArray();
-            for(Package pkg: packageMap.values()){
+            for(Package pkg: listPackages()){
                 jsonArray.put(pkg.toJson());
             }
             jsonObject.put("packages", jsonArray);
@@ -243,10 +244,10 @@ import java.util.*;
         public static class Package implements Comparable<Package>, Comparator<Package.Type>{
             public final byte id;
             public String name;
-            public final Map<Byte, Type> typeMap;
+            public final IntMap<Type> typeMap;
             public Package(byte id){
                 this.id = id;
-                this.typeMap = new HashMap<>();
+                this.typeMap = new IntMap<>();
             }
             public Type.Entry getEntry(String typeName, String name){
                 Type type=getType(typeName);
@@ -287,7 +288,6 @@ import java.util.*;
             }
             private void cleanSpecStringPool(PackageBlock packageBlock){
                 SpecStringPool specStringPool = packageBlock.getSpecStringPool();
-                specStringPool.refreshUniqueIdMap();
                 specStringPool.removeUnusedStrings();
                 packageBlock.refresh();
             }
@@ -309,7 +309,7 @@ import java.util.*;
                 return typeMap.get(typeId);
             }
             public void add(Type type){
-                Byte typeId= type.id;;
+                byte typeId= type.id;
                 Type exist=this.typeMap.get(typeId);
                 if(exist!=null){
                     exist.merge(type);
@@ -351,7 +351,7 @@ import java.util.*;
                     jsonObject.put("name", this.name);
                 }
                 JSONArray jsonArray=new JSONArray();
-                for(Type type:typeMap.values()){
+                for(Type type:listTypes()){
                     jsonArray.put(type.toJson());
                 }
                 jsonObject.put("types", jsonArray);
@@ -453,10 +453,10 @@ import java.util.*;
                 public String name;
                 public String nameAlias;
                 public Package mPackage;
-                public final Map<Short, Entry> entryMap;
+                public final IntMap<Entry> entryMap;
                 public Type(byte id){
                     this.id = id;
-                    this.entryMap = new HashMap<>();
+                    this.entryMap = new IntMap<>();
                 }
                 public Entry getEntry(String entryName){
                     for(Entry entry:entryMap.values()){
@@ -507,7 +507,7 @@ import java.util.*;
                         this.name=n;
                     }
                     for(Entry entry:type.entryMap.values()){
-                        Short entryId=entry.getEntryId();
+                        short entryId=entry.getEntryId();
                         Entry existEntry=this.entryMap.get(entryId);
                         if(existEntry != null && Objects.equals(existEntry.getName(), entry.getName())){
                             continue;
@@ -554,7 +554,7 @@ import java.util.*;
                     jsonObject.put("id", getIdInt());
                     jsonObject.put("name", getName());
                     JSONArray jsonArray=new JSONArray();
-                    for(Entry entry: entryMap.values()){
+                    for(Entry entry: listEntries()){
                         jsonArray.put(entry.toJson());
                     }
                     jsonObject.put("entries", jsonArray);
@@ -19,8 +19,6 @@
  import com.reandroid.lib.apk.ResourceIds;
  import com.reandroid.lib.arsc.chunk.PackageBlock;
  import com.reandroid.lib.arsc.chunk.TableBlock;
- import com.reandroid.lib.arsc.chunk.TypeBlock;
- import com.reandroid.lib.arsc.container.SpecTypePair;
  import com.reandroid.lib.arsc.decoder.ValueDecoder;
  import com.reandroid.lib.arsc.group.EntryGroup;
  import com.reandroid.lib.arsc.item.SpecString;
@@ -179,55 +177,25 @@
                  ", name="+name);
      }
      public EntryGroup getLocalEntryGroup(String type, String name){
-         for(EntryGroup entryGroup : currentPackage.listEntryGroup()){
-             if(type.equals(entryGroup.getTypeName()) &&
-                     name.equals(entryGroup.getSpecName())){
-                 return entryGroup;
-             }
-         }
-         for(PackageBlock packageBlock:currentPackage.getTableBlock().listPackages()){
-             for(EntryGroup entryGroup : packageBlock.listEntryGroup()){
-                 if(type.equals(entryGroup.getTypeName()) &&
-                         name.equals(entryGroup.getSpecName())){
-                     return entryGroup;
-                 }
-             }
+         EntryGroup entryGroup=currentPackage.searchEntryGroup(type, name);
+         if(entryGroup!=null){
+             return entryGroup;
          }
-         return null;
+         return currentPackage.getTableBlock().searchEntryGroup(null, type, name);
      }
      public EntryBlock getLocalEntryBlock(String type, String name){
-         for(EntryGroup entryGroup : currentPackage.listEntryGroup()){
-             if(type.equals(entryGroup.getTypeName()) &&
-                     name.equals(entryGroup.getSpecName())){
-                 return entryGroup.pickOne();
-             }
-         }
-         SpecTypePair specTypePair=currentPackage.searchByTypeName(type);
-         if(specTypePair!=null){
-             for(TypeBlock typeBlock:specTypePair.listTypeBlocks()){
-                 for(EntryBlock entryBlock:typeBlock.listEntries()){
-                     if(name.equals(entryBlock.getName())){
-                         return entryBlock;
-                     }
-                 }
-                 break;
-             }
+         EntryGroup entryGroup=currentPackage.searchEntryGroup(type, name);
+         if(entryGroup!=null){
+             return entryGroup.pickOne();
          }
          for(PackageBlock packageBlock:currentPackage.getTableBlock().listPackages()){
              if(packageBlock==currentPackage ||
                      packageBlock.getId()!=currentPackage.getId()){
                  continue;
              }
-             specTypePair=packageBlock.searchByTypeName(type);
-             if(specTypePair!=null){
-                 for(TypeBlock typeBlock:specTypePair.listTypeBlocks()){
-                     for(EntryBlock entryBlock:typeBlock.listEntries()){
-                         if(name.equals(entryBlock.getName())){
-                             return entryBlock;
-                         }
-                     }
-                     break;
-                 }
+             entryGroup=packageBlock.searchEntryGroup(type, name);
+             if(entryGroup!=null){
+                 return entryGroup.pickOne();
              }
          }
          return null;
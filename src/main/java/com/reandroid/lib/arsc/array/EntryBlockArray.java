@@ -15,6 +15,8 @@
   */
 package com.reandroid.lib.arsc.array;
 
+import com.reandroid.lib.arsc.base.Block;
+import com.reandroid.lib.arsc.io.BlockReader;
 import com.reandroid.lib.arsc.item.IntegerArray;
 import com.reandroid.lib.arsc.item.IntegerItem;
 import com.reandroid.lib.arsc.value.BaseResValue;
@@ -25,13 +27,268 @@ import com.reandroid.lib.json.JSONConvert;
 import com.reandroid.lib.json.JSONArray;
 import com.reandroid.lib.json.JSONObject;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 
 public class EntryBlockArray extends OffsetBlockArray<EntryBlock> implements JSONConvert<JSONArray> {
+    private boolean mSparse;
+    private boolean mOffset16;
+    private boolean mCompact;
     public EntryBlockArray(IntegerArray offsets, IntegerItem itemCount, IntegerItem itemStart){
         super(offsets, itemCount, itemStart);
     }
+    /**
+     * Sparse (ResTable_sparseTypeEntry) offsets hold only defined entries, each as
+     * entry id (low 16 bits) and offset/4 (high 16 bits); count is of defined entries
+     * */
+    public boolean isSparse(){
+        return mSparse;
+    }
+    public void setSparse(boolean sparse){
+        if(sparse==mSparse){
+            return;
+        }
+        mSparse=sparse;
+        refreshCount();
+        notifyCountChanged();
+    }
+    /**
+     * 16 bit offsets (FLAG_OFFSET16) hold offset/4 and 0xffff for null entries, two per integer
+     * */
+    public boolean isOffset16(){
+        return mOffset16;
+    }
+    public void setOffset16(boolean offset16){
+        if(offset16==mOffset16){
+            return;
+        }
+        mOffset16=offset16;
+        notifyCountChanged();
+    }
+    /**
+     * Returns false if offsets of entries do not fit on 16 bits
+     * */
+    public boolean canBeOffset16(){
+        int sum=0;
+        for(EntryBlock entryBlock:getChildes()){
+            if(entryBlock==null || entryBlock.isNull()){
+                continue;
+            }
+            if(sum/4 >= 0xffff){
+                return false;
+            }
+            int size=entryBlock.countBytes();
+            if(size%4!=0){
+                return false;
+            }
+            sum+=size;
+        }
+        return true;
+    }
+    /**
+     * When true, all entries that can be are written as compact entries,
+     * see {@link EntryBlock#setCompact(boolean)}
+     * */
+    public boolean isCompact(){
+        return mCompact;
+    }
+    public void setCompact(boolean compact){
+        mCompact=compact;
+        for(EntryBlock entryBlock:getChildes()){
+            if(entryBlock!=null){
+                entryBlock.setCompact(compact);
+            }
+        }
+    }
+    private boolean containsCompact(){
+        for(EntryBlock entryBlock:getChildes()){
+            if(entryBlock!=null && entryBlock.isCompact()){
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Returns false if offsets of entries do not fit on sparse encoding
+     * */
+    public boolean canBeSparse(){
+        int sum=0;
+        for(EntryBlock entryBlock:getChildes()){
+            if(entryBlock==null || entryBlock.isNull()){
+                continue;
+            }
+            int size=entryBlock.countBytes();
+            if(size%4!=0){
+                return false;
+            }
+            sum+=size;
+        }
+        // offset of the last entry must fit on 16 bits
+        return sum/4 <= 0xffff;
+    }
+    /**
+     * Density heuristic, sparse encoding is worth if less than
+     * {@link #SPARSE_THRESHOLD} percent of entries are defined
+     * */
+    public boolean shouldBeSparse(){
+        int count=childesCount();
+        if(count==0){
+            return false;
+        }
+        int defined=countDefined();
+        return defined*100 < count*SPARSE_THRESHOLD && canBeSparse();
+    }
+    private int countDefined(){
+        int result=0;
+        for(EntryBlock entryBlock:getChildes()){
+            if(entryBlock!=null && !entryBlock.isNull()){
+                result++;
+            }
+        }
+        return result;
+    }
+    @Override
+    void refreshCount(){
+        if(!mSparse){
+            super.refreshCount();
+            return;
+        }
+        getItemCount().set(countDefined());
+    }
+    @Override
+    void refreshOffsets(){
+        if(mCompact){
+            // applies to entries added since
+            setCompact(true);
+        }
+        if(mSparse){
+            refreshSparseOffsets();
+        }else if(mOffset16){
+            refreshOffsets16();
+        }else {
+            super.refreshOffsets();
+        }
+    }
+    private void refreshOffsets16(){
+        EntryBlock[] childes=getChildes();
+        int count=childes.length;
+        IntegerArray offsets=getOffsets();
+        offsets.setSize((count+1)/2);
+        int sum=0;
+        int low=0;
+        for(int i=0;i<count;i++){
+            EntryBlock entryBlock=childes[i];
+            int offset;
+            if(entryBlock==null || entryBlock.isNull()){
+                offset=0xffff;
+            }else {
+                offset=sum/4;
+                sum+=entryBlock.countBytes();
+            }
+            if((i & 1)==0){
+                low=offset;
+            }else {
+                offsets.put(i/2, low | (offset << 16));
+            }
+        }
+        if((count & 1)!=0){
+            // the last one is padded with zero
+            offsets.put(count/2, low);
+        }
+    }
+    private int[] decodeOffsets16(){
+        int count=childesCount();
+        int[] packed=getOffsets().toArray();
+        int[] results=new int[count];
+        for(int i=0;i<count;i++){
+            int offset=packed[i/2];
+            if((i & 1)!=0){
+                offset=offset >>> 16;
+            }
+            offset=offset & 0xffff;
+            if(offset==0xffff){
+                results[i]=-1;
+            }else {
+                results[i]=offset*4;
+            }
+        }
+        return results;
+    }
+    private void refreshSparseOffsets(){
+        EntryBlock[] childes=getChildes();
+        IntegerArray offsets=getOffsets();
+        offsets.setSize(countDefined());
+        int sum=0;
+        int index=0;
+        for(int i=0;i<childes.length;i++){
+            EntryBlock entryBlock=childes[i];
+            if(entryBlock==null || entryBlock.isNull()){
+                continue;
+            }
+            offsets.put(index, (i & 0xffff) | ((sum/4) << 16));
+            sum+=entryBlock.countBytes();
+            index++;
+        }
+    }
+    @Override
+    protected void readItems(BlockReader reader) throws IOException{
+        if(mSparse){
+            readSparseItems(reader);
+        }else if(mOffset16){
+            readItems(reader, decodeOffsets16());
+        }else {
+            super.readItems(reader);
+        }
+        mCompact=containsCompact();
+    }
+    private void readSparseItems(BlockReader reader) throws IOException{
+        int[] offsetArray=getOffsets().toArray();
+        int count=0;
+        for(int sparseEntry:offsetArray){
+            int id=sparseEntry & 0xffff;
+            if(id>=count){
+                count=id+1;
+            }
+        }
+        setChildesCount(count);
+        EntryBlock[] childes=getChildes();
+        boolean[] defined=new boolean[count];
+        int zeroPosition=reader.getPosition();
+        int maxPos=zeroPosition;
+        for(int sparseEntry:offsetArray){
+            int id=sparseEntry & 0xffff;
+            int offset=(sparseEntry >>> 16) * 4;
+            reader.seek(zeroPosition+offset);
+            childes[id].readBytes(reader);
+            defined[id]=true;
+            int pos=reader.getPosition();
+            if(pos>maxPos){
+                maxPos=pos;
+            }
+        }
+        for(int i=0;i<count;i++){
+            if(!defined[i]){
+                childes[i].setNull(true);
+            }
+        }
+        reader.seek(maxPos);
+    }
+    @Override
+    public void onBlockLoaded(BlockReader reader, Block sender) throws IOException {
+        if(mSparse && sender==getItemCount()){
+            // count is of defined entries, childes are created on reading offsets
+            getOffsets().setSize(getItemCount().get());
+            return;
+        }
+        if(mOffset16 && sender==getItemCount()){
+            int count=getItemCount().get();
+            setChildesCount(count);
+            getOffsets().setSize((count+1)/2);
+            return;
+        }
+        super.onBlockLoaded(reader, sender);
+    }
     public boolean isEmpty(){
         return !iterator(true).hasNext();
     }
@@ -146,4 +403,5 @@ public class EntryBlockArray extends OffsetBlockArray<EntryBlock> implements JSO
         return getClass().getSimpleName()+": size="+childesCount();
     }
     private static final String NAME_id="id";
+    public static final int SPARSE_THRESHOLD = 60;
 }
@@ -35,14 +35,22 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
     private final IntegerItem mItemCount;
     private final ByteArray mEnd4Block;
     private byte mEnd4Type;
+    private boolean mOffsetsRefreshed;
     public OffsetBlockArray(IntegerArray offsets, IntegerItem itemCount, IntegerItem itemStart){
         super();
         this.mOffsets=offsets;
         this.mItemCount=itemCount;
         this.mItemStart=itemStart;
         this.mEnd4Block=new ByteArray();
+        this.mEnd4Block.setParent(this);
         mItemCount.setBlockLoad(this);
     }
+    IntegerArray getOffsets(){
+        return mOffsets;
+    }
+    IntegerItem getItemCount(){
+        return mItemCount;
+    }
     void setEndBytes(byte b){
         this.mEnd4Type=b;
         this.mEnd4Block.fill(b);
@@ -70,16 +78,6 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
         mEnd4Block.onCountUpTo(counter);
     }
     @Override
-    public byte[] getBytes(){
-        byte[] results=super.getBytes();
-        if(results==null){
-            return null;
-        }
-        byte[] endBytes=mEnd4Block.getBytes();
-        results=addBytes(results, endBytes);
-        return results;
-    }
-    @Override
     public int onWriteBytes(OutputStream stream) throws IOException {
         int result=super.onWriteBytes(stream);
         if(result==0){
@@ -89,8 +87,24 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
         return result;
     }
     @Override
+    protected void onCountChanged(){
+        super.onCountChanged();
+        mOffsetsRefreshed=false;
+    }
+    @Override
     protected void onRefreshed() {
+        refreshOffsets();
+        refreshCount();
+        refreshStart();
+        refreshEnd4Block();
+        mOffsetsRefreshed=true;
+    }
+    // Offsets depend only on size of childes, skip if none changed since last refresh
+    void refreshOffsets(){
         int count=childesCount();
+        if(mOffsetsRefreshed && mOffsets.size()==count){
+            return;
+        }
         mOffsets.setSize(count);
         T[] childes=getChildes();
         int sum=0;
@@ -112,9 +126,6 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
                 mOffsets.put(i, offset);
             }
         }
-        refreshCount();
-        refreshStart();
-        refreshEnd4Block();
     }
     public void refreshCountAndStart(){
         refreshCount();
@@ -167,14 +178,27 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
 
     @Override
     public void onReadBytes(BlockReader reader) throws IOException{
-        T[] childes=getChildes();
-        if(childes==null||childes.length==0){
+        if(mOffsets.size()==0){
             return;
         }
-        int[] offsetArray=mOffsets.toArray();
+        reader.seek(mItemStart.get());
+        readItems(reader);
+        refreshEnd4Block(reader, mEnd4Block);
+        mOffsetsRefreshed=false;
+    }
+    /**
+     * Reads items at their offsets relative to current position of {@param reader},
+     * the reader is left at the end of the last item
+     * */
+    protected void readItems(BlockReader reader) throws IOException{
+        readItems(reader, mOffsets.toArray());
+    }
+    /**
+     * Same as {@link #readItems(BlockReader)} with decoded offsets, -1 for null items
+     * */
+    final void readItems(BlockReader reader, int[] offsetArray) throws IOException{
+        T[] childes=getChildes();
         int max=childes.length;
-        int start=mItemStart.get();
-        reader.seek(start);
         int zeroPosition=reader.getPosition();
         int maxPos=zeroPosition;
         for(int i=0;i<max;i++){
@@ -193,7 +217,6 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
             }
         }
         reader.seek(maxPos);
-        refreshEnd4Block(reader, mEnd4Block);
     }
     @Override
     public void onBlockLoaded(BlockReader reader, Block sender) throws IOException {
@@ -99,13 +99,9 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
         return pair;
     }
     public SpecTypePair getPair(byte typeId){
-        SpecTypePair[] items=getChildes();
-        if(items==null){
-            return null;
-        }
-        int max=items.length;
+        int max=childesCount();
         for(int i=0;i<max;i++){
-            SpecTypePair pair=items[i];
+            SpecTypePair pair=get(i);
             if(pair==null){
                 continue;
             }
@@ -116,13 +112,9 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
         return null;
     }
     public byte getTypeId(){
-        SpecTypePair[] items=getChildes();
-        if(items==null){
-            return 0;
-        }
-        int max=items.length;
+        int max=childesCount();
         for(int i=0;i<max;i++){
-            SpecTypePair pair=items[i];
+            SpecTypePair pair=get(i);
             if(pair!=null){
                 return pair.getTypeId();
             }
@@ -20,6 +20,7 @@
  import com.reandroid.lib.arsc.io.BlockLoad;
  import com.reandroid.lib.arsc.io.BlockReader;
  import com.reandroid.lib.arsc.item.IntegerItem;
+ import com.reandroid.lib.arsc.util.IntMap;
  import com.reandroid.lib.arsc.value.StagedAliasEntry;
  import com.reandroid.lib.json.JSONArray;
  import com.reandroid.lib.json.JSONConvert;
@@ -34,18 +35,38 @@
          this.count=count;
          this.count.setBlockLoad(this);
      }
+     private IntMap<StagedAliasEntry> mStagedIdMap;
      public StagedAliasEntry searchByStagedResId(int stagedResId){
-         StagedAliasEntry[] childes=getChildes();
-         if(childes==null){
-             return null;
+         IntMap<StagedAliasEntry> stagedIdMap=mStagedIdMap;
+         if(stagedIdMap==null){
+             stagedIdMap=buildStagedIdMap();
+             mStagedIdMap=stagedIdMap;
          }
-         for(int i=0;i<childes.length;i++){
-             StagedAliasEntry entry=childes[i];
-             if(stagedResId==entry.getStagedResId()){
-                 return entry;
+         return stagedIdMap.get(stagedResId);
+     }
+     /**
+      * Drops staged id index, called by entries when staged id changes
+      * */
+     public void onStagedResIdChanged(){
+         mStagedIdMap=null;
+     }
+     // first entry wins on duplicate staged id, same as linear search
+     private IntMap<StagedAliasEntry> buildStagedIdMap(){
+         int length=childesCount();
+         IntMap<StagedAliasEntry> results=new IntMap<>(length);
+         for(int i=0;i<length;i++){
+             StagedAliasEntry entry=get(i);
+             int stagedResId=entry.getStagedResId();
+             if(!results.containsKey(stagedResId)){
+                 results.put(stagedResId, entry);
              }
          }
-         return null;
+         return results;
+     }
+     @Override
+     protected void onCountChanged(){
+         super.onCountChanged();
+         mStagedIdMap=null;
      }
      @Override
      public void addAll(StagedAliasEntry[] aliasEntries){
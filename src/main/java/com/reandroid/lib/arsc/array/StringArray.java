@@ -15,6 +15,7 @@
   */
 package com.reandroid.lib.arsc.array;
 
+import com.reandroid.lib.arsc.io.BlockReader;
 import com.reandroid.lib.arsc.item.IntegerArray;
 import com.reandroid.lib.arsc.item.IntegerItem;
 import com.reandroid.lib.arsc.item.StringItem;
@@ -22,6 +23,7 @@ import com.reandroid.lib.json.JSONConvert;
 import com.reandroid.lib.json.JSONArray;
 import com.reandroid.lib.json.JSONObject;
 
+import java.io.IOException;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,6 +36,27 @@ public abstract class StringArray<T extends StringItem> extends OffsetBlockArray
         this.mUtf8=is_utf8;
         setEndBytes((byte)0x00);
     }
+    /**
+     * Strings are packed: all of them point to one buffer of the pool's string data
+     * instead of owning separate arrays, modified strings are copied out (copy-on-write).
+     * Readers in zero-copy mode are already shared, thus read directly.
+     * */
+    @Override
+    protected void readItems(BlockReader reader) throws IOException {
+        if(reader.isZeroCopy()){
+            super.readItems(reader);
+            return;
+        }
+        int position=reader.getPosition();
+        byte[] buffer=new byte[reader.available()];
+        reader.readFully(buffer);
+        BlockReader packedReader=new BlockReader(buffer);
+        packedReader.setSynchronized(false);
+        packedReader.setZeroCopy(true);
+        super.readItems(packedReader);
+        reader.seek(position+packedReader.getPosition());
+        packedReader.close();
+    }
     public List<String> toStringList(){
         return new AbstractList<String>() {
             @Override
@@ -15,11 +15,13 @@
   */
 package com.reandroid.lib.arsc.array;
 
+import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.io.BlockReader;
 import com.reandroid.lib.arsc.item.ByteArray;
 import com.reandroid.lib.arsc.item.IntegerArray;
 import com.reandroid.lib.arsc.item.IntegerItem;
 import com.reandroid.lib.arsc.item.StyleItem;
+import com.reandroid.lib.arsc.pool.BaseStringPool;
 import com.reandroid.lib.json.JSONConvert;
 import com.reandroid.lib.json.JSONArray;
 
@@ -36,16 +38,17 @@ public class StyleArray extends OffsetBlockArray<StyleItem> implements JSONConve
         if(reader.available()<4){
             return;
         }
-        IntegerItem integerItem=new IntegerItem();
+        int count=0;
         while (reader.available()>=4){
             int pos=reader.getPosition();
-            integerItem.readBytes(reader);
-            if(integerItem.get()!=0xFFFFFFFF){
+            if(reader.readIntLE()!=0xFFFFFFFF){
                 reader.seek(pos);
                 break;
             }
-            end4Block.add(integerItem.getBytes());
+            count++;
         }
+        end4Block.setSize(count*4);
+        end4Block.fill(END_BYTE);
     }
     @Override
     void refreshEnd4Block(ByteArray end4Block) {
@@ -56,6 +59,15 @@ public class StyleArray extends OffsetBlockArray<StyleItem> implements JSONConve
         end4Block.ensureArraySize(8);
         end4Block.fill(END_BYTE);
     }
+    // styles are added, removed or resized
+    @Override
+    protected void onCountChanged(){
+        super.onCountChanged();
+        Block parent=getParent();
+        if(parent instanceof BaseStringPool){
+            ((BaseStringPool<?>) parent).onStyleChanged();
+        }
+    }
     @Override
     protected void refreshChildes(){
         // Not required
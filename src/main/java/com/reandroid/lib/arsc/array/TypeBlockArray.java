@@ -100,13 +100,9 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         return typeBlock;
     }
     public TypeBlock getTypeBlock(String qualifiers){
-        TypeBlock[] items=getChildes();
-        if(items==null){
-            return null;
-        }
-        int max=items.length;
+        int max=childesCount();
         for(int i=0;i<max;i++){
-            TypeBlock block=items[i];
+            TypeBlock block=get(i);
             if(block.getResConfig().isEqualQualifiers(qualifiers)){
                 return block;
             }
@@ -117,13 +113,9 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         if(config==null){
             return null;
         }
-        TypeBlock[] items=getChildes();
-        if(items==null){
-            return null;
-        }
-        int max=items.length;
+        int max=childesCount();
         for(int i=0;i<max;i++){
-            TypeBlock block=items[i];
+            TypeBlock block=get(i);
             if(config.equals(block.getResConfig())){
                 return block;
             }
@@ -247,13 +239,18 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
     public int getHighestEntryCount(){
         int result=0;
         for(TypeBlock typeBlock:getChildes()){
-            int count=typeBlock.getEntryBlockArray().childesCount();
+            int count=typeBlock.getEntryCount();
             if(count>result){
                 result=count;
             }
         }
         return result;
     }
+    public void loadEntries(){
+        for(TypeBlock typeBlock:getChildes()){
+            typeBlock.loadEntries();
+        }
+    }
     public void setEntryCount(int count){
         for(TypeBlock typeBlock:getChildes()){
             typeBlock.setEntryCount(count);
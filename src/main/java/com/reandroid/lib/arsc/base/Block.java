@@ -29,7 +29,7 @@ public abstract class Block {
     public abstract byte[] getBytes();
     public abstract int countBytes();
     public final int countUpTo(Block block){
-        BlockCounter counter=new BlockCounter(block);
+        BlockCounter counter=new BlockCounter(this, block);
         onCountUpTo(counter);
         return counter.COUNT;
     }
@@ -63,7 +63,11 @@ public abstract class Block {
         return mNull;
     }
     public void setNull(boolean is_null){
+        if(is_null==mNull){
+            return;
+        }
         mNull=is_null;
+        notifyCountChanged();
     }
     public final int getIndex(){
         return mIndex;
@@ -85,11 +89,42 @@ public abstract class Block {
         if(parent==this){
             return;
         }
+        Block old=mParent;
+        if(parent==old){
+            return;
+        }
+        mParent=parent;
+        if(old!=null){
+            old.notifyCountChanged();
+        }
+        if(parent!=null){
+            parent.notifyCountChanged();
+        }
+    }
+    // Sets parent without notifying count change, the caller is responsible to notify
+    final void setParentInternal(Block parent){
         mParent=parent;
     }
     public final Block getParent(){
         return mParent;
     }
+    /**
+     * Must be called whenever a change might alter the result of countBytes(),
+     * the cached counts of this block and all of its parents are dropped
+     * */
+    protected final void notifyCountChanged(){
+        Block block=this;
+        while (block!=null){
+            block.onCountChanged();
+            block=block.mParent;
+        }
+    }
+    /**
+     * Called on this block and all of its parents when countBytes() of this block
+     * or any of its childes is changed
+     * */
+    protected void onCountChanged(){
+    }
 
 
     protected static byte[] addBytes(byte[] bts1, byte[] bts2){
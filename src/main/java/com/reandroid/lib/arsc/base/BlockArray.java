@@ -20,6 +20,7 @@ import java.util.*;
 
 public abstract class BlockArray<T extends Block> extends BlockContainer<T> implements BlockArrayCreator<T>  {
     private T[] elementData;
+    private int mSize;
     public BlockArray(){
         elementData= newInstance(0);
     }
@@ -40,10 +41,58 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
             }
         };
     }
+    /**
+     * Returns the childes as an array of exactly {@link #childesCount()} length,
+     * the backing array itself if it has no spare capacity otherwise a copy
+     */
     @Override
     public T[] getChildes(){
+        T[] items=elementData;
+        int size=mSize;
+        if(items.length==size){
+            return items;
+        }
+        T[] results=newInstance(size);
+        System.arraycopy(items, 0, results, 0, size);
+        return results;
+    }
+    // slots beyond size are always null
+    @Override
+    T[] getChildesInternal(){
         return elementData;
     }
+    /**
+     * Grows the backing array to hold at least the given number of childes
+     * without further copying, size and childes are not changed
+     */
+    public void ensureCapacity(int capacity){
+        T[] old=elementData;
+        int oldCapacity=old.length;
+        if(capacity<=oldCapacity){
+            return;
+        }
+        int grow=oldCapacity + (oldCapacity >> 1);
+        if(grow<capacity){
+            grow=capacity;
+        }
+        T[] update=newInstance(grow);
+        if(mSize>0){
+            System.arraycopy(old, 0, update, 0, mSize);
+        }
+        elementData=update;
+    }
+    public void trimToSize(){
+        T[] old=elementData;
+        int size=mSize;
+        if(old.length==size){
+            return;
+        }
+        T[] update=newInstance(size);
+        if(size>0){
+            System.arraycopy(old, 0, update, 0, size);
+        }
+        elementData=update;
+    }
     public void ensureSize(int size){
         if(size<= childesCount()){
             return;
@@ -66,87 +115,84 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
     }
     public void clearChildes(){
         T[] allChildes=elementData;
-        if(allChildes==null || allChildes.length==0){
+        int max=mSize;
+        if(max==0){
             return;
         }
-        int max=allChildes.length;
         for(int i=0;i<max;i++){
             T block=allChildes[i];
             if(block==null){
                 continue;
             }
             block.setIndex(-1);
-            block.setParent(null);
+            block.setParentInternal(null);
             allChildes[i]=null;
         }
         elementData=newInstance(0);
+        mSize=0;
+        notifyCountChanged();
     }
     public void addAll(T[] blocks){
         if(blocks==null||blocks.length==0){
             return;
         }
-        T[] old=elementData;
-        if(old==null){
-            old=newInstance(0);
-        }
-        int oldLen=old.length;
         int len=blocks.length;
-        T[] update= newInstance(oldLen+len);
-        if(oldLen>0){
-            System.arraycopy(old, 0, update, 0, oldLen);
-        }
-        boolean foundNull=false;
+        ensureCapacity(mSize+len);
         for(int i=0;i<len;i++){
-            T item=blocks[i];
-            if(item==null){
-                foundNull=true;
-                continue;
-            }
-            int index=oldLen + i;
-            update[index]=item;
-            item.setParent(this);
-            item.setIndex(index);
+            addInternal(blocks[i]);
         }
-        elementData=update;
-        if(foundNull){
-            trimNullBlocks();
+    }
+    public void addAll(Collection<? extends T> blocks){
+        if(blocks==null||blocks.size()==0){
+            return;
+        }
+        ensureCapacity(mSize+blocks.size());
+        for(T item:blocks){
+            addInternal(item);
         }
     }
     public void sort(Comparator<T> comparator){
         T[] data=this.elementData;
-        if(comparator==null || data==null || data.length<2){
+        int size=mSize;
+        if(comparator==null || size<2){
             return;
         }
-        Arrays.sort(data, 0, data.length, comparator);
-        for(int i=0;i<data.length;i++){
+        Arrays.sort(data, 0, size, comparator);
+        for(int i=0;i<size;i++){
             data[i].setIndex(i);
         }
+        // same count but positions changed, e.g. offsets of OffsetBlockArray
+        notifyCountChanged();
     }
     public void setItem(int index, T item){
         ensureSize(index+1);
         elementData[index]=item;
         item.setIndex(index);
         item.setParent(this);
+        notifyCountChanged();
     }
     public void add(T block){
         if(block==null){
             return;
         }
-        T[] old=elementData;
-        int index=old.length;
-        elementData= newInstance(index+1);
-        if(index>0){
-            System.arraycopy(old, 0, elementData, 0, index);
+        ensureCapacity(mSize+1);
+        addInternal(block);
+    }
+    private void addInternal(T block){
+        if(block==null){
+            return;
         }
+        int index=mSize;
         elementData[index]=block;
         block.setIndex(index);
         block.setParent(this);
+        mSize=index+1;
     }
     public final int countNonNull(){
         return countNonNull(true);
     }
     public final int childesCount(){
-        return elementData.length;
+        return mSize;
     }
     public final T createNext(){
         T block=newInstance();
@@ -154,17 +200,14 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
         return block;
     }
     public final T get(int i){
-        if(i >= childesCount() || i<0){
+        if(i >= mSize || i<0){
             return null;
         }
         return elementData[i];
     }
     public int indexOf(Object block){
         T[] items=elementData;
-        if(items==null){
-            return -1;
-        }
-        int len=items.length;
+        int len=mSize;
         for(int i=0;i<len;i++){
             if(block==items[i]){
                 return i;
@@ -174,17 +217,13 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
     }
     public int lastIndexOf(Object block){
         T[] items=elementData;
-        if(items==null){
-            return -1;
-        }
-        int len=items.length;
-        int result=-1;
-        for(int i=0;i<len;i++){
+        int len=mSize;
+        for(int i=len-1;i>=0;i--){
             if(block==items[i]){
-                result=i;
+                return i;
             }
         }
-        return result;
+        return -1;
     }
 
     public Iterator<T> iterator() {
@@ -194,24 +233,14 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
         return new BlockIterator(skipNullBlock);
     }
     public boolean contains(Object block){
-        T[] items=elementData;
-        if(block==null || items==null){
-            return false;
-        }
-        int len=items.length;
-        for(int i=0;i<len;i++){
-            if(block==items[i]){
-                return true;
-            }
-        }
-        return false;
+        return block!=null && indexOf(block)>=0;
     }
     public void remove(Collection<T> blockList){
         T[] items=elementData;
-        if(items==null || items.length==0){
+        int len=mSize;
+        if(len==0){
             return;
         }
-        int len=items.length;
         for(T block:blockList){
             if(block==null){
                 continue;
@@ -232,51 +261,51 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
     }
     protected boolean remove(T block, boolean trim){
         T[] items=elementData;
-        if(block==null||items==null){
+        if(block==null){
             return false;
         }
         boolean found=false;
-        int len=items.length;
+        int len=mSize;
         for(int i=0;i<len;i++){
             if(block==items[i]){
                 items[i]=null;
                 found=true;
             }
         }
-        if(found && trim){
+        if(!found){
+            return false;
+        }
+        if(trim){
             trimNullBlocks();
+        }else {
+            notifyCountChanged();
         }
-        return found;
+        return true;
     }
     protected void trimNullBlocks(){
         T[] items=elementData;
-        if(items==null){
-            return;
-        }
-        int count=countNonNull(false);
-        int len=items.length;
-        if(count==len){
-            return;
-        }
-        T[] update=newInstance(count);
+        int len=mSize;
         int index=0;
         for(int i=0;i<len;i++){
             T block=items[i];
             if(block!=null){
-                update[index]=block;
+                items[index]=block;
                 block.setIndex(index);
                 index++;
             }
         }
-        elementData=update;
+        for(int i=index;i<len;i++){
+            items[i]=null;
+        }
+        mSize=index;
+        notifyCountChanged();
     }
     private int countNonNull(boolean is_null_check){
         T[] items=elementData;
-        if(items==null){
-            return 0;
-        }
+        int len=mSize;
         int result=0;
-        for(T block:items){
+        for(int i=0;i<len;i++){
+            T block=items[i];
             if(block!=null){
                 if(is_null_check && block.isNull()){
                     continue;
@@ -287,26 +316,27 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
         return result;
     }
     private void changeSize(int amount){
-        T[] old=elementData;
-        int index=old.length;
+        int index=mSize;
         int size=index+amount;
-        T[] update= newInstance(size);
-        int end;
-        if(index>size){
-            end=size;
-        }else {
-            end=index;
-        }
-        if(end>0){
-            System.arraycopy(old, 0, update, 0, end);
+        if(size<index){
+            T[] items=elementData;
+            for(int i=size;i<index;i++){
+                items[i]=null;
+            }
+            mSize=size;
+            notifyCountChanged();
+            return;
         }
-        for(int i=end;i<size;i++){
+        ensureCapacity(size);
+        T[] items=elementData;
+        for(int i=index;i<size;i++){
             T item=newInstance();
-            update[i]=item;
+            items[i]=item;
             item.setIndex(i);
-            item.setParent(this);
+            item.setParentInternal(this);
         }
-        elementData=update;
+        mSize=size;
+        notifyCountChanged();
     }
 
     @Override
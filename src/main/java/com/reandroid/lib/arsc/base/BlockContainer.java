@@ -17,14 +17,20 @@ package com.reandroid.lib.arsc.base;
 
 import com.reandroid.lib.arsc.container.BlockList;
 import com.reandroid.lib.arsc.io.BlockReader;
+import com.reandroid.lib.arsc.io.BlockWriter;
 
 import java.io.IOException;
 import java.io.OutputStream;
 
 public abstract class BlockContainer<T extends Block> extends Block{
+    private int mCountCache=-1;
     public BlockContainer(){
         super();
     }
+    @Override
+    protected void onCountChanged(){
+        mCountCache=-1;
+    }
 
     protected void onPreRefreshRefresh(){
 
@@ -39,7 +45,7 @@ public abstract class BlockContainer<T extends Block> extends Block{
         onRefreshed();
     }
     protected void refreshChildes(){
-        T[] childes=getChildes();
+        T[] childes=getChildesInternal();
         if(childes!=null){
             int max=childes.length;
             for(int i=0;i<max;i++){
@@ -63,7 +69,7 @@ public abstract class BlockContainer<T extends Block> extends Block{
             counter.FOUND=true;
             return;
         }
-        T[] childes=getChildes();
+        T[] childes=getChildesInternal();
         if(childes==null){
             return;
         }
@@ -73,7 +79,12 @@ public abstract class BlockContainer<T extends Block> extends Block{
                 return;
             }
             T item=childes[i];
-            if(item!=null){
+            if(item==null){
+                continue;
+            }
+            if(!item.isNull() && counter.canSkip(item)){
+                counter.addCount(item.countBytes());
+            }else {
                 item.onCountUpTo(counter);
             }
         }
@@ -83,11 +94,15 @@ public abstract class BlockContainer<T extends Block> extends Block{
         if(isNull()){
             return 0;
         }
-        T[] childes=getChildes();
+        int result=mCountCache;
+        if(result>=0){
+            return result;
+        }
+        T[] childes=getChildesInternal();
         if(childes==null){
             return 0;
         }
-        int result=0;
+        result=0;
         int max=childes.length;
         for(int i=0;i<max;i++){
             T item=childes[i];
@@ -95,33 +110,19 @@ public abstract class BlockContainer<T extends Block> extends Block{
                 result += item.countBytes();
             }
         }
+        mCountCache=result;
         return result;
     }
     @Override
     public byte[] getBytes(){
-        if(isNull()){
-            return null;
-        }
-        T[] childes=getChildes();
-        if(childes==null){
-            return null;
-        }
-        byte[] results=null;
-        int max=childes.length;
-        for(int i=0;i<max;i++){
-            T item=childes[i];
-            if(item!=null){
-                results = addBytes(results, item.getBytes());
-            }
-        }
-        return results;
+        return BlockWriter.toBytes(this);
     }
     @Override
     public int onWriteBytes(OutputStream stream) throws IOException {
         if(isNull()){
             return 0;
         }
-        T[] childes=getChildes();
+        T[] childes=getChildesInternal();
         if(childes==null){
             return 0;
         }
@@ -138,7 +139,7 @@ public abstract class BlockContainer<T extends Block> extends Block{
 
     @Override
     public void onReadBytes(BlockReader reader) throws IOException{
-        T[] childes=getChildes();
+        T[] childes=getChildesInternal();
         if(childes==null){
             return;
         }
@@ -151,6 +152,12 @@ public abstract class BlockContainer<T extends Block> extends Block{
         }
     }
 
+    /**
+     * Childes to iterate by this container, the array may have trailing null slots
+     * */
+    T[] getChildesInternal(){
+        return getChildes();
+    }
     public abstract int childesCount();
     public abstract T[] getChildes();
 }
@@ -19,8 +19,26 @@ public class BlockCounter {
     public final Block END;
     public boolean FOUND;
     int COUNT;
-    BlockCounter(Block end){
+    private final Block[] mEndPath;
+    BlockCounter(Block start, Block end){
         this.END=end;
+        this.mEndPath=buildEndPath(start, end);
+    }
+    /**
+     * Returns true if {@param block} could not contain END, thus its countBytes()
+     * can be added at once instead of walking through its childes
+     * */
+    boolean canSkip(Block block){
+        Block[] endPath=mEndPath;
+        if(endPath==null){
+            return false;
+        }
+        for(Block parent:endPath){
+            if(parent==block){
+                return false;
+            }
+        }
+        return true;
     }
     public void addCount(int val){
         if(FOUND){
@@ -28,6 +46,28 @@ public class BlockCounter {
         }
         COUNT+=val;
     }
+    // Parents of END up to start, null if END is not reachable through parents
+    private static Block[] buildEndPath(Block start, Block end){
+        if(end==null){
+            return null;
+        }
+        int depth=0;
+        Block block=end;
+        while (block!=null && block!=start){
+            depth++;
+            block=block.getParent();
+        }
+        if(block==null){
+            return null;
+        }
+        Block[] results=new Block[depth];
+        block=end;
+        for(int i=0;i<depth;i++){
+            results[i]=block;
+            block=block.getParent();
+        }
+        return results;
+    }
     @Override
     public String toString(){
         if(FOUND){
@@ -18,9 +18,11 @@ package com.reandroid.lib.arsc.chunk;
 import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.container.ExpandableBlockContainer;
 import com.reandroid.lib.arsc.header.HeaderBlock;
+import com.reandroid.lib.arsc.io.BlockChannelWriter;
 import com.reandroid.lib.arsc.io.BlockReader;
 
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 
 public abstract class BaseChunk extends ExpandableBlockContainer {
     private final HeaderBlock mHeaderBlock;
@@ -49,6 +51,13 @@ public abstract class BaseChunk extends ExpandableBlockContainer {
     protected abstract void onChunkRefreshed();
     public void onChunkLoaded(){
 
+    }
+    /**
+     * Writes through a buffer to {@param channel} with few large writes instead of
+     * a write call per item, the channel is not closed
+     * */
+    public int writeBytes(WritableByteChannel channel) throws IOException {
+        return BlockChannelWriter.write(this, channel);
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
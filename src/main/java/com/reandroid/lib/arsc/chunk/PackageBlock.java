@@ -32,6 +32,7 @@ package com.reandroid.lib.arsc.chunk;
  import com.reandroid.lib.arsc.pool.SpecStringPool;
  import com.reandroid.lib.arsc.pool.TableStringPool;
  import com.reandroid.lib.arsc.pool.TypeStringPool;
+ import com.reandroid.lib.arsc.util.IntMap;
  import com.reandroid.lib.arsc.value.EntryBlock;
  import com.reandroid.lib.arsc.value.LibraryInfo;
  import com.reandroid.lib.arsc.value.StagedAliasEntry;
@@ -40,6 +41,9 @@ package com.reandroid.lib.arsc.chunk;
 
  import java.io.IOException;
  import java.util.*;
+ import java.util.concurrent.ExecutionException;
+ import java.util.concurrent.ForkJoinPool;
+ import java.util.concurrent.Future;
 
 
  public class PackageBlock extends BaseChunk
@@ -59,7 +63,11 @@ package com.reandroid.lib.arsc.chunk;
 
     private final PackageBody mBody;
 
-    private final Map<Integer, EntryGroup> mEntriesGroup;
+    private final IntMap<EntryGroup> mEntriesGroup;
+    private Map<String, Map<String, EntryGroup>> mNameGroupMap;
+    private int mNameGroupTypeModCount;
+    private int mNameGroupSpecModCount;
+    private boolean mHasLazyEntries;
 
     public PackageBlock() {
         super(ChunkType.PACKAGE, 3);
@@ -81,7 +89,7 @@ package com.reandroid.lib.arsc.chunk;
 
         this.mBody = new PackageBody();
 
-        this.mEntriesGroup=new HashMap<>();
+        this.mEntriesGroup=new IntMap<>();
 
         mPackageId.setBlockLoad(this);
 
@@ -104,8 +112,10 @@ package com.reandroid.lib.arsc.chunk;
     }
 
     public StagedAliasEntry searchByStagedResId(int stagedResId){
-        for(StagedAlias stagedAlias:getStagedAliasList().getChildes()){
-            StagedAliasEntry entry=stagedAlias.getStagedAliasEntryArray()
+        BlockList<StagedAlias> stagedAliasList=getStagedAliasList();
+        int size=stagedAliasList.size();
+        for(int i=0;i<size;i++){
+            StagedAliasEntry entry=stagedAliasList.get(i).getStagedAliasEntryArray()
                     .searchByStagedResId(stagedResId);
             if(entry!=null){
                 return entry;
@@ -194,7 +204,7 @@ package com.reandroid.lib.arsc.chunk;
         return mBody.getLibraryBlock();
     }
     public Set<Integer> listResourceIds(){
-        return mEntriesGroup.keySet();
+        return getEntriesGroupMap().keySet();
     }
     public EntryBlock getOrCreateEntry(byte typeId, short entryId, String qualifiers){
         return getSpecTypePairArray().getOrCreateEntry(typeId, entryId, qualifiers);
@@ -209,8 +219,30 @@ package com.reandroid.lib.arsc.chunk;
         return getSpecTypePairArray().getTypeBlock(typeId, qualifiers);
     }
     public Map<Integer, EntryGroup> getEntriesGroupMap(){
+        loadEntries();
         return mEntriesGroup;
     }
+    /**
+     * Parses all type blocks kept as raw bytes by lazy loading
+     * */
+    public void loadEntries(){
+        if(!mHasLazyEntries){
+            return;
+        }
+        for(SpecTypePair pair:listAllSpecTypePair()){
+            pair.getTypeBlockArray().loadEntries();
+        }
+        mHasLazyEntries=false;
+    }
+    private void loadEntries(int resourceId){
+        if(!mHasLazyEntries){
+            return;
+        }
+        byte typeId=(byte) ((resourceId >> 16) & 0xff);
+        for(SpecTypePair pair:listSpecTypePair(typeId)){
+            pair.getTypeBlockArray().loadEntries();
+        }
+    }
     public Collection<EntryGroup> listEntryGroup(){
         return getEntriesGroupMap().values();
     }
@@ -223,17 +255,98 @@ package com.reandroid.lib.arsc.chunk;
         if(resourceId==0){
             return null;
         }
-        EntryGroup entryGroup=getEntriesGroupMap().get(resourceId);
+        loadEntries(resourceId);
+        EntryGroup entryGroup=mEntriesGroup.get(resourceId);
         if(entryGroup!=null){
             return entryGroup;
         }
         StagedAliasEntry stagedAliasEntry = searchByStagedResId(resourceId);
         if(stagedAliasEntry!=null){
-            return getEntriesGroupMap()
-                    .get(stagedAliasEntry.getFinalizedResId());
+            int finalizedResId=stagedAliasEntry.getFinalizedResId();
+            loadEntries(finalizedResId);
+            return mEntriesGroup.get(finalizedResId);
+        }
+        return null;
+    }
+    /**
+     * Searches entry group by type and entry name, e.g. ("string", "app_name").
+     * Duplicate names are allowed, thus any one of the groups is returned.
+     * */
+    public EntryGroup searchEntryGroup(String type, String name){
+        if(type==null || name==null){
+            return null;
+        }
+        EntryGroup entryGroup=searchNameGroupMap(type, name);
+        if(entryGroup==null || isNameOf(entryGroup, type, name)){
+            return entryGroup;
+        }
+        // renamed or removed after indexed, stale names are dropped by rebuilding
+        mNameGroupMap=null;
+        entryGroup=searchNameGroupMap(type, name);
+        if(entryGroup!=null && isNameOf(entryGroup, type, name)){
+            return entryGroup;
         }
         return null;
     }
+    private EntryGroup searchNameGroupMap(String type, String name){
+        Map<String, Map<String, EntryGroup>> nameGroupMap=mNameGroupMap;
+        // names edited in place on type or spec pool make misses stale as well
+        int typeModCount=getTypeStringPool().getStringsModCount();
+        int specModCount=getSpecStringPool().getStringsModCount();
+        if(nameGroupMap==null
+                || typeModCount!=mNameGroupTypeModCount
+                || specModCount!=mNameGroupSpecModCount){
+            nameGroupMap=buildNameGroupMap();
+            mNameGroupMap=nameGroupMap;
+            mNameGroupTypeModCount=typeModCount;
+            mNameGroupSpecModCount=specModCount;
+        }
+        Map<String, EntryGroup> groupMap=nameGroupMap.get(type);
+        if(groupMap==null){
+            return null;
+        }
+        return groupMap.get(name);
+    }
+    private Map<String, Map<String, EntryGroup>> buildNameGroupMap(){
+        Map<String, Map<String, EntryGroup>> results=new HashMap<>();
+        for(EntryGroup entryGroup:listEntryGroup()){
+            putNameGroupMap(results, entryGroup.getTypeName(), entryGroup.getSpecName(), entryGroup);
+        }
+        return results;
+    }
+    /**
+     * Updates name index (if already built) after entry is added or its name changed
+     * */
+    public void onEntryNameChanged(EntryBlock entryBlock){
+        Map<String, Map<String, EntryGroup>> nameGroupMap=mNameGroupMap;
+        if(nameGroupMap==null || entryBlock==null){
+            return;
+        }
+        EntryGroup entryGroup=mEntriesGroup.get(entryBlock.getResourceId());
+        if(entryGroup==null){
+            return;
+        }
+        putNameGroupMap(nameGroupMap, entryBlock.getTypeName(), entryBlock.getName(), entryGroup);
+    }
+    private static void putNameGroupMap(Map<String, Map<String, EntryGroup>> nameGroupMap,
+                                        String type, String name, EntryGroup entryGroup){
+        if(type==null || name==null){
+            return;
+        }
+        Map<String, EntryGroup> groupMap=nameGroupMap.get(type);
+        if(groupMap==null){
+            groupMap=new HashMap<>();
+            nameGroupMap.put(type, groupMap);
+        }
+        EntryGroup exist=groupMap.get(name);
+        if(exist==null || !isNameOf(exist, type, name)){
+            groupMap.put(name, entryGroup);
+        }
+    }
+    private static boolean isNameOf(EntryGroup entryGroup, String type, String name){
+        return name.equals(entryGroup.getSpecName())
+                && type.equals(entryGroup.getTypeName());
+    }
     public void updateEntry(EntryBlock entryBlock){
         if(entryBlock==null||entryBlock.isNull()){
             return;
@@ -246,13 +359,13 @@ package com.reandroid.lib.arsc.chunk;
             return;
         }
         int id=entryBlock.getResourceId();
-        EntryGroup group=getEntriesGroupMap().get(id);
+        EntryGroup group=mEntriesGroup.get(id);
         if(group==null){
             return;
         }
         group.remove(entryBlock);
         if(group.size()==0){
-            getEntriesGroupMap().remove(id);
+            mEntriesGroup.remove(id);
         }
     }
     private void updateEntryTableReferences(EntryBlock entryBlock){
@@ -266,12 +379,13 @@ package com.reandroid.lib.arsc.chunk;
     }
     private void updateEntryGroup(EntryBlock entryBlock){
         int resId=entryBlock.getResourceId();
-        EntryGroup group=getEntriesGroupMap().get(resId);
+        EntryGroup group=mEntriesGroup.get(resId);
         if(group==null){
             group=new EntryGroup(resId);
-            getEntriesGroupMap().put(resId, group);
+            mEntriesGroup.put(resId, group);
         }
         group.add(entryBlock);
+        onEntryNameChanged(entryBlock);
     }
 
     public List<EntryBlock> listEntries(byte typeId, int entryId){
@@ -319,6 +433,44 @@ package com.reandroid.lib.arsc.chunk;
         updateEntry(entryBlock);
     }
     @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        mHasLazyEntries=reader.isLazyLoad() || reader.isParallelLoad();
+        super.onReadBytes(reader);
+        if(reader.isParallelLoad() && !reader.isLazyLoad()){
+            loadEntriesParallel();
+        }
+    }
+    private void loadEntriesParallel() throws IOException {
+        List<TypeBlock> typeBlockList=new ArrayList<>();
+        for(SpecTypePair pair:listAllSpecTypePair()){
+            typeBlockList.addAll(pair.getTypeBlockArray().listItems());
+        }
+        ForkJoinPool pool=ForkJoinPool.commonPool();
+        List<Future<?>> futureList=new ArrayList<>(typeBlockList.size());
+        for(final TypeBlock typeBlock:typeBlockList){
+            futureList.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    typeBlock.parseEntries(true);
+                }
+            }));
+        }
+        try{
+            for(Future<?> future:futureList){
+                future.get();
+            }
+        }catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading: "+this, ex);
+        }catch (ExecutionException ex){
+            throw new IOException("Failed to load: "+this+", "+ex.getCause(), ex.getCause());
+        }
+        for(TypeBlock typeBlock:typeBlockList){
+            typeBlock.linkEntries();
+        }
+        mHasLazyEntries=false;
+    }
+    @Override
     public void onChunkLoaded() {
     }
 
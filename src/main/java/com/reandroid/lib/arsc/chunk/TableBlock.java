@@ -38,6 +38,8 @@ public class TableBlock extends BaseChunk implements JSONConvert<JSONObject> {
     private final TableStringPool mTableStringPool;
     private final PackageArray mPackageArray;
     private final Set<TableBlock> mFrameWorks=new HashSet<>();
+    private boolean mAutoSparse;
+    private int mMinSdkVersion;
     public TableBlock() {
         super(ChunkType.TABLE, 2);
         this.mPackageCount=new IntegerItem();
@@ -65,6 +67,29 @@ public class TableBlock extends BaseChunk implements JSONConvert<JSONObject> {
     public PackageArray getPackageArray(){
         return mPackageArray;
     }
+    /**
+     * When enabled, each type is written as sparse if less than
+     * {@link com.reandroid.lib.arsc.array.EntryBlockArray#SPARSE_THRESHOLD} percent of its
+     * entries are defined, otherwise as dense. Disabled by default since sparse types are
+     * supported on Android 8.0 (API 26) and above only.
+     * */
+    public void setAutoSparse(boolean autoSparse){
+        this.mAutoSparse=autoSparse;
+    }
+    public boolean isAutoSparse(){
+        return mAutoSparse;
+    }
+    /**
+     * Lowest API level the table is built for, 0 (default) if unknown. On refresh, types use
+     * compact entries from {@link #SDK_COMPACT_ENTRIES} and 16 bit entry offsets from
+     * {@link #SDK_OFFSET16} where entries fit. Encodings read from file are kept as they are.
+     * */
+    public void setMinSdkVersion(int minSdkVersion){
+        this.mMinSdkVersion=minSdkVersion;
+    }
+    public int getMinSdkVersion(){
+        return mMinSdkVersion;
+    }
 
     private void refreshPackageCount(){
         int count = getPackageArray().childesCount();
@@ -81,11 +106,13 @@ public class TableBlock extends BaseChunk implements JSONConvert<JSONObject> {
     }
 
     public void readBytes(File file) throws IOException{
-        BlockReader reader=new BlockReader(file);
+        BlockReader reader=BlockReader.map(file);
+        reader.setSynchronized(false);
         super.readBytes(reader);
     }
     public void readBytes(InputStream inputStream) throws IOException{
         BlockReader reader=new BlockReader(inputStream);
+        reader.setSynchronized(false);
         super.readBytes(reader);
     }
     public final int writeBytes(File file) throws IOException{
@@ -96,10 +123,12 @@ public class TableBlock extends BaseChunk implements JSONConvert<JSONObject> {
         if(dir!=null && !dir.exists()){
             dir.mkdirs();
         }
-        OutputStream outputStream=new FileOutputStream(file);
-        int length = super.writeBytes(outputStream);
-        outputStream.close();
-        return length;
+        FileOutputStream outputStream=new FileOutputStream(file);
+        try{
+            return writeBytes(outputStream.getChannel());
+        }finally {
+            outputStream.close();
+        }
     }
 
     @Override
@@ -134,6 +163,22 @@ public class TableBlock extends BaseChunk implements JSONConvert<JSONObject> {
         }
         return null;
     }
+    /**
+     * Searches entry group by names from packages of this table, if packageName is null
+     * all packages are searched. Frameworks are not searched.
+     * */
+    public EntryGroup searchEntryGroup(String packageName, String type, String name){
+        for(PackageBlock packageBlock:listPackages()){
+            if(packageName!=null && !packageName.equals(packageBlock.getName())){
+                continue;
+            }
+            EntryGroup entryGroup=packageBlock.searchEntryGroup(type, name);
+            if(entryGroup!=null){
+                return entryGroup;
+            }
+        }
+        return null;
+    }
     public int searchResourceIdAlias(int resourceId){
         for(PackageBlock packageBlock:listPackages()){
             StagedAliasEntry stagedAliasEntry =
@@ -192,13 +237,38 @@ public class TableBlock extends BaseChunk implements JSONConvert<JSONObject> {
         return tableBlock;
     }
     public static TableBlock load(File file) throws IOException{
-        return load(new FileInputStream(file));
+        TableBlock tableBlock=new TableBlock();
+        tableBlock.readBytes(file);
+        return tableBlock;
     }
     public static TableBlock load(InputStream inputStream) throws IOException{
         TableBlock tableBlock=new TableBlock();
         tableBlock.readBytes(inputStream);
         return tableBlock;
     }
+    /**
+     * Loads type blocks of each package concurrently, results are the same as load(File)
+     * */
+    public static TableBlock loadParallel(File file) throws IOException{
+        BlockReader reader=BlockReader.map(file);
+        reader.setSynchronized(false);
+        reader.setParallelLoad(true);
+        TableBlock tableBlock=new TableBlock();
+        tableBlock.readBytes(reader);
+        return tableBlock;
+    }
+    /**
+     * Loads with type blocks kept as raw bytes until their entries are accessed,
+     * unmodified type blocks are written back as they are
+     * */
+    public static TableBlock loadLazy(File file) throws IOException{
+        BlockReader reader=BlockReader.map(file);
+        reader.setSynchronized(false);
+        reader.setLazyLoad(true);
+        TableBlock tableBlock=new TableBlock();
+        tableBlock.readBytes(reader);
+        return tableBlock;
+    }
 
     public static boolean isResTableBlock(File file){
         if(file==null){
@@ -241,6 +311,9 @@ public class TableBlock extends BaseChunk implements JSONConvert<JSONObject> {
     }
     public static final String FILE_NAME="resources.arsc";
 
+    public static final int SDK_COMPACT_ENTRIES = 34;
+    public static final int SDK_OFFSET16 = 35;
+
     private static final String NAME_packages="packages";
     public static final String NAME_styled_strings="styled_strings";
 }
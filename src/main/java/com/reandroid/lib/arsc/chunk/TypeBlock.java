@@ -18,7 +18,9 @@ package com.reandroid.lib.arsc.chunk;
 import com.reandroid.lib.arsc.array.EntryBlockArray;
 import com.reandroid.lib.arsc.array.TypeBlockArray;
 import com.reandroid.lib.arsc.base.Block;
+import com.reandroid.lib.arsc.base.BlockCounter;
 import com.reandroid.lib.arsc.container.SpecTypePair;
+import com.reandroid.lib.arsc.header.HeaderBlock;
 import com.reandroid.lib.arsc.io.BlockLoad;
 import com.reandroid.lib.arsc.io.BlockReader;
 import com.reandroid.lib.arsc.item.*;
@@ -28,8 +30,8 @@ import com.reandroid.lib.arsc.value.ResConfig;
 import com.reandroid.lib.json.JSONConvert;
 import com.reandroid.lib.json.JSONObject;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -40,8 +42,13 @@ public class TypeBlock extends BaseChunk
     private final ByteItem mTypeFlags;
     private final IntegerItem mEntryCount;
     private final ResConfig mResConfig;
+    private final IntegerArray mEntryOffsets;
     private final EntryBlockArray mEntryArray;
     private TypeString mTypeString;
+    // raw bytes of this chunk while entries are not yet parsed (lazy load)
+    private byte[] mLazyChunk;
+    private int mLazyHeaderEnd;
+    private int mLazyEntryCount;
     public TypeBlock() {
         super(ChunkType.TYPE, 2);
         this.mTypeId=new ByteItem();
@@ -51,8 +58,8 @@ public class TypeBlock extends BaseChunk
 
         IntegerItem entriesStart = new IntegerItem();
         this.mResConfig =new ResConfig();
-        IntegerArray entryOffsets = new IntegerArray();
-        this.mEntryArray = new EntryBlockArray(entryOffsets, mEntryCount, entriesStart);
+        this.mEntryOffsets = new IntegerArray();
+        this.mEntryArray = new EntryBlockArray(mEntryOffsets, mEntryCount, entriesStart);
 
         mTypeFlags.setBlockLoad(this);
 
@@ -63,7 +70,7 @@ public class TypeBlock extends BaseChunk
         addToHeader(entriesStart);
         addToHeader(mResConfig);
 
-        addChild(entryOffsets);
+        addChild(mEntryOffsets);
         addChild(mEntryArray);
     }
     public PackageBlock getPackageBlock(){
@@ -126,13 +133,93 @@ public class TypeBlock extends BaseChunk
         }
         return null;
     }
+    /**
+     * Same as getEntryBlockArray().childesCount() but does not trigger parsing of lazy loaded entries
+     * */
+    public int getEntryCount(){
+        byte[] chunk=mLazyChunk;
+        if(chunk==null){
+            return getEntryBlockArray().childesCount();
+        }
+        if(!isSparse() || mLazyEntryCount==0){
+            return mLazyEntryCount;
+        }
+        // sparse entries are sorted by id, the last one has the highest
+        int position=mLazyHeaderEnd+(mLazyEntryCount-1)*4;
+        int id=(chunk[position] & 0xff) | (chunk[position+1] & 0xff) << 8;
+        return id+1;
+    }
     public void setEntryCount(int count){
+        if(isSparse()){
+            // count field holds count of defined entries, updated on refresh
+            onSetEntryCount(count);
+            return;
+        }
         if(count == mEntryCount.get()){
             return;
         }
         mEntryCount.set(count);
         onSetEntryCount(count);
     }
+    public boolean isSparse(){
+        return (mTypeFlags.get() & FLAG_SPARSE)!=0;
+    }
+    /**
+     * Sparse types are supported on Android 8.0 (API 26) and above only
+     * */
+    public void setSparse(boolean sparse){
+        if(sparse==isSparse()){
+            return;
+        }
+        EntryBlockArray entryBlockArray=getEntryBlockArray();
+        if(sparse && !entryBlockArray.canBeSparse()){
+            throw new IllegalArgumentException("Entries too big for sparse type: "+this);
+        }
+        if(sparse){
+            setOffset16(false);
+        }
+        setTypeFlag(FLAG_SPARSE, sparse);
+        entryBlockArray.setSparse(sparse);
+    }
+    public boolean isOffset16(){
+        return (mTypeFlags.get() & FLAG_OFFSET16)!=0;
+    }
+    /**
+     * 16 bit entry offsets are supported on Android 15 (API 35) and above only,
+     * can not be combined with sparse
+     * */
+    public void setOffset16(boolean offset16){
+        if(offset16==isOffset16()){
+            return;
+        }
+        EntryBlockArray entryBlockArray=getEntryBlockArray();
+        if(offset16 && isSparse()){
+            throw new IllegalArgumentException("Sparse type can not have 16 bit offsets: "+this);
+        }
+        if(offset16 && !entryBlockArray.canBeOffset16()){
+            throw new IllegalArgumentException("Entries too big for 16 bit offsets: "+this);
+        }
+        setTypeFlag(FLAG_OFFSET16, offset16);
+        entryBlockArray.setOffset16(offset16);
+    }
+    public boolean isCompactEntries(){
+        return getEntryBlockArray().isCompact();
+    }
+    /**
+     * Compact entries are supported on Android 14 (API 34) and above only
+     * */
+    public void setCompactEntries(boolean compact){
+        getEntryBlockArray().setCompact(compact);
+    }
+    private void setTypeFlag(int flag, boolean set){
+        int flags=mTypeFlags.get();
+        if(set){
+            flags=flags | flag;
+        }else {
+            flags=flags & ~flag;
+        }
+        mTypeFlags.set((byte) flags);
+    }
     public boolean isEmpty(){
         return getEntryBlockArray().isEmpty();
     }
@@ -185,8 +272,54 @@ public class TypeBlock extends BaseChunk
         return mResConfig;
     }
     public EntryBlockArray getEntryBlockArray(){
+        loadEntries();
         return mEntryArray;
     }
+    public boolean isEntriesLoaded(){
+        return mLazyChunk==null;
+    }
+    /**
+     * Parses entries kept as raw bytes by lazy loading, does nothing if already loaded
+     * */
+    public void loadEntries(){
+        parseEntries(false);
+    }
+    /**
+     * When {@param parallel} is true, entries are only parsed and
+     * must be linked later by {@link #linkEntries()}. Safe to call concurrently on
+     * different type blocks in this mode
+     * */
+    void parseEntries(boolean parallel){
+        byte[] chunk=mLazyChunk;
+        if(chunk==null){
+            return;
+        }
+        mLazyChunk=null;
+        BlockReader reader=new BlockReader(chunk);
+        reader.setSynchronized(false);
+        reader.setParallelLoad(parallel);
+        int count=mEntryCount.get();
+        try {
+            reader.seek(mLazyHeaderEnd);
+            mEntryCount.set(mLazyEntryCount);
+            mEntryArray.onBlockLoaded(reader, mEntryCount);
+            mEntryOffsets.readBytes(reader);
+            mEntryArray.readBytes(reader);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to load entries: "+ex.getMessage(), ex);
+        } finally {
+            mEntryCount.set(count);
+            reader.close();
+        }
+        notifyCountChanged();
+    }
+    void linkEntries(){
+        for(EntryBlock entryBlock:mEntryArray.getChildes()){
+            if(entryBlock!=null && !entryBlock.isNull()){
+                entryBlock.linkReferences();
+            }
+        }
+    }
     public List<EntryBlock> listEntries(){
         return listEntries(false);
     }
@@ -208,26 +341,88 @@ public class TypeBlock extends BaseChunk
     }
     @Override
     protected void onChunkRefreshed() {
+        if(mLazyChunk!=null){
+            return;
+        }
         getEntryBlockArray().refreshCountAndStart();
     }
     @Override
     protected void onPreRefreshRefresh(){
+        refreshEncoding();
         mResConfig.refresh();
+        if(mLazyChunk!=null && getHeaderBlock().countBytes()!=mLazyHeaderEnd){
+            // header size changed, entries start has to be re-calculated
+            loadEntries();
+        }
         super.onPreRefreshRefresh();
     }
-    /*
-    * method Block.addBytes is inefficient for large size byte array
-    * so let's override here because this block is the largest
-    */
     @Override
-    public byte[] getBytes(){
-        ByteArrayOutputStream os=new ByteArrayOutputStream();
-        try {
-            writeBytes(os);
-            os.close();
-        } catch (IOException ignored) {
+    protected void refreshChildes(){
+        if(mLazyChunk!=null){
+            return;
+        }
+        super.refreshChildes();
+    }
+    @Override
+    public int countBytes(){
+        byte[] chunk=mLazyChunk;
+        if(chunk==null){
+            return super.countBytes();
         }
-        return os.toByteArray();
+        return getHeaderBlock().countBytes() + chunk.length - mLazyHeaderEnd;
+    }
+    @Override
+    public void onCountUpTo(BlockCounter counter){
+        byte[] chunk=mLazyChunk;
+        if(chunk==null){
+            super.onCountUpTo(counter);
+            return;
+        }
+        if(counter.FOUND){
+            return;
+        }
+        if(counter.END==this){
+            counter.FOUND=true;
+            return;
+        }
+        getHeaderBlock().onCountUpTo(counter);
+        counter.addCount(chunk.length - mLazyHeaderEnd);
+    }
+    @Override
+    public int onWriteBytes(OutputStream stream) throws IOException {
+        byte[] chunk=mLazyChunk;
+        if(chunk==null){
+            return super.onWriteBytes(stream);
+        }
+        int result=getHeaderBlock().writeBytes(stream);
+        int length=chunk.length - mLazyHeaderEnd;
+        stream.write(chunk, mLazyHeaderEnd, length);
+        return result+length;
+    }
+    @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        mLazyChunk=null;
+        if(!reader.isLazyLoad() && !reader.isParallelLoad()){
+            super.onReadBytes(reader);
+            return;
+        }
+        HeaderBlock headerBlock=reader.readHeaderBlock();
+        checkInvalidChunk(headerBlock);
+        byte[] chunk=new byte[headerBlock.getChunkSize()];
+        if(reader.readFully(chunk)!=chunk.length){
+            throw new IOException("Unexpected end of chunk: "+headerBlock);
+        }
+        BlockReader chunkReader=new BlockReader(chunk);
+        chunkReader.setSynchronized(false);
+        // entries are not created until loadEntries()
+        mEntryCount.setBlockLoad(null);
+        getHeaderBlock().readBytes(chunkReader);
+        mEntryCount.setBlockLoad(mEntryArray);
+        mLazyHeaderEnd=chunkReader.getPosition();
+        mLazyEntryCount=mEntryCount.get();
+        chunkReader.close();
+        mLazyChunk=chunk;
+        notifyCountChanged();
     }
     @Override
     public JSONObject toJson() {
@@ -278,12 +473,45 @@ public class TypeBlock extends BaseChunk
     public EntryBlock searchByEntryName(String entryName){
         return getEntryBlockArray().searchByEntryName(entryName);
     }
+    // entry sizes depend on compact, thus it is selected first
+    private void refreshEncoding(){
+        TableBlock tableBlock=getTableBlock();
+        int minSdk=0;
+        boolean autoSparse=false;
+        if(tableBlock!=null){
+            minSdk=tableBlock.getMinSdkVersion();
+            autoSparse=tableBlock.isAutoSparse();
+        }
+        if(minSdk>=TableBlock.SDK_COMPACT_ENTRIES){
+            setCompactEntries(true);
+        }
+        if(autoSparse){
+            setSparse(getEntryBlockArray().shouldBeSparse());
+        }else if(isSparse() && isEntriesLoaded() && !getEntryBlockArray().canBeSparse()){
+            setSparse(false);
+        }
+        if(isSparse()){
+            return;
+        }
+        if(minSdk>=TableBlock.SDK_OFFSET16){
+            setOffset16(getEntryBlockArray().canBeOffset16());
+        }else if(isOffset16() && isEntriesLoaded() && !getEntryBlockArray().canBeOffset16()){
+            setOffset16(false);
+        }
+    }
+    private TableBlock getTableBlock(){
+        PackageBlock packageBlock=getPackageBlock();
+        if(packageBlock==null){
+            return null;
+        }
+        return packageBlock.getTableBlock();
+    }
     @Override
     public void onBlockLoaded(BlockReader reader, Block sender) throws IOException {
         if(sender==mTypeFlags){
-            if(mTypeFlags.get()==0x1){
-                //ResTable_sparseTypeEntry ?
-            }
+            // ResTable_sparseTypeEntry or 16 bit offsets, must be known before entry count is loaded
+            mEntryArray.setSparse(isSparse());
+            mEntryArray.setOffset16(isOffset16());
         }
     }
     @Override
@@ -295,6 +523,9 @@ public class TypeBlock extends BaseChunk
         return builder.toString();
     }
 
+    private static final byte FLAG_SPARSE = 0x01;
+    private static final byte FLAG_OFFSET16 = 0x02;
+
     public static final String NAME_name = "name";
     public static final String NAME_config = "config";
     public static final String NAME_id = "id";
@@ -66,7 +66,15 @@ import java.util.Set;
     void linkStringReferences(){
         linkStringReference(mCommentReference);
         linkStringReference(mNamespaceReference);
-        linkStringReference(mStringReference);
+        if(isStringReference()){
+            linkStringReference(mStringReference);
+        }
+    }
+    /**
+     * Returns false if the field of string reference holds other value than a string index
+     * */
+    boolean isStringReference(){
+        return true;
     }
     private void linkStringReference(IntegerItem item){
         ResXmlString xmlString = getResXmlString(item.get());
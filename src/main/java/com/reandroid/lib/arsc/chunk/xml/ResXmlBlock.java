@@ -64,26 +64,12 @@ package com.reandroid.lib.arsc.chunk.xml;
         }
         return resXmlElement;
     }
-    void linkStringReferences(){
+    public void linkStringReferences(){
         ResXmlElement element=getResXmlElement();
         if(element!=null){
             element.linkStringReferences();
         }
     }
-    /*
-     * method Block.addBytes is inefficient for large size byte array
-     * so let's override here because this block is the largest
-     */
-    @Override
-    public byte[] getBytes(){
-        ByteArrayOutputStream os=new ByteArrayOutputStream();
-        try {
-            writeBytes(os);
-            os.close();
-        } catch (IOException ignored) {
-        }
-        return os.toByteArray();
-    }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
         HeaderBlock headerBlock=reader.readHeaderBlock();
@@ -172,11 +158,14 @@ package com.reandroid.lib.arsc.chunk.xml;
 
     }
     public void readBytes(File file) throws IOException{
-        BlockReader reader=new BlockReader(file);
+        BlockReader reader=BlockReader.map(file);
+        reader.setSynchronized(false);
         super.readBytes(reader);
+        reader.close();
     }
     public void readBytes(InputStream inputStream) throws IOException{
         BlockReader reader=new BlockReader(inputStream);
+        reader.setSynchronized(false);
         super.readBytes(reader);
     }
     public final int writeBytes(File file) throws IOException{
@@ -187,10 +176,12 @@ package com.reandroid.lib.arsc.chunk.xml;
         if(dir!=null && !dir.exists()){
             dir.mkdirs();
         }
-        OutputStream outputStream=new FileOutputStream(file);
-        int length = super.writeBytes(outputStream);
-        outputStream.close();
-        return length;
+        FileOutputStream outputStream=new FileOutputStream(file);
+        try{
+            return writeBytes(outputStream.getChannel());
+        }finally {
+            outputStream.close();
+        }
     }
     @Override
     public JSONObject toJson() {
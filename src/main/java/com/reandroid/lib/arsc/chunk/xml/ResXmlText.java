@@ -50,6 +50,11 @@ public class ResXmlText extends BaseXmlChunk {
         int ref=resXmlString.getIndex();
         setTextReference(ref);
     }
+    // size and type of the typed data, not a string
+    @Override
+    boolean isStringReference(){
+        return false;
+    }
     @Override
     public String toString(){
         String txt=getText();
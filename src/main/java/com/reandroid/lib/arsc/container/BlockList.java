@@ -19,6 +19,7 @@ import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.base.BlockContainer;
 import com.reandroid.lib.arsc.base.BlockCounter;
 import com.reandroid.lib.arsc.io.BlockReader;
+import com.reandroid.lib.arsc.io.BlockWriter;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -72,13 +73,7 @@ public class BlockList<T extends Block> extends Block {
     }
     @Override
     public byte[] getBytes() {
-        byte[] results=null;
-        for(T item:mItems){
-            if(item!=null){
-                results=addBytes(results, item.getBytes());
-            }
-        }
-        return results;
+        return BlockWriter.toBytes(this);
     }
     @Override
     public int countBytes() {
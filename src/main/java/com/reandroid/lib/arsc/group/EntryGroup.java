@@ -35,8 +35,7 @@ public class EntryGroup extends ItemGroup<EntryBlock> {
         return resourceId;
     }
     public boolean renameSpec(String name){
-        EntryBlock[] items=getItems();
-        if(items==null || name==null){
+        if(size()==0 || name==null){
             return false;
         }
         SpecStringPool specStringPool=getSpecStringPool();
@@ -56,8 +55,11 @@ public class EntryGroup extends ItemGroup<EntryBlock> {
         return (short) (getResourceId() & 0xffff);
     }
     private boolean isAllSameSpec(){
+        EntryBlock[] items=getItemsInternal();
+        int size=size();
         EntryBlock first=null;
-        for(EntryBlock entryBlock:listItems()){
+        for(int i=0;i<size;i++){
+            EntryBlock entryBlock=items[i];
             if(first==null){
                 first=entryBlock;
                 continue;
@@ -69,12 +71,11 @@ public class EntryGroup extends ItemGroup<EntryBlock> {
         return true;
     }
     public boolean renameSpec(int specReference){
-        EntryBlock[] items=getItems();
-        if(items==null){
-            return false;
-        }
+        EntryBlock[] items=getItemsInternal();
+        int size=size();
         boolean renameOk=false;
-        for(EntryBlock block:items){
+        for(int i=0;i<size;i++){
+            EntryBlock block=items[i];
             if(block==null){
                 continue;
             }
@@ -87,12 +88,11 @@ public class EntryGroup extends ItemGroup<EntryBlock> {
         return renameOk;
     }
     public EntryBlock pickOne(){
-        EntryBlock[] items=getItems();
-        if(items==null){
-            return null;
-        }
+        EntryBlock[] items=getItemsInternal();
+        int size=size();
         EntryBlock result = null;
-        for(EntryBlock entryBlock:items){
+        for(int i=0;i<size;i++){
+            EntryBlock entryBlock=items[i];
             if(entryBlock==null){
                 continue;
             }
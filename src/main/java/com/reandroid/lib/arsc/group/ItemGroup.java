@@ -19,6 +19,7 @@ import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.base.BlockArrayCreator;
 
 import java.util.AbstractList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
@@ -26,12 +27,15 @@ public class ItemGroup<T extends Block> {
     private final BlockArrayCreator<T> mBlockArrayCreator;
     private final String name;
     private T[] items;
-    private final int hashCode;
+    private int mSize;
+    private int hashCode;
     public ItemGroup(BlockArrayCreator<T> blockArrayCreator, String name){
         this.mBlockArrayCreator=blockArrayCreator;
         this.name=name;
         this.items=blockArrayCreator.newInstance(0);
-        this.hashCode=(getClass().getName()+"-"+name).hashCode();
+    }
+    public String getName(){
+        return name;
     }
     public Iterator<T> iterator(){
         return iterator(false);
@@ -59,16 +63,13 @@ public class ItemGroup<T extends Block> {
         return items[i];
     }
     public int size(){
-        if(items==null){
-            return 0;
-        }
-        return items.length;
+        return mSize;
     }
     public boolean contains(T block){
         if(block==null){
             return false;
         }
-        int len=items.length;
+        int len=mSize;
         for(int i=0;i<len;i++){
             if(block==items[i]){
                 return true;
@@ -81,7 +82,7 @@ public class ItemGroup<T extends Block> {
             return;
         }
         boolean found=false;
-        int len=items.length;
+        int len=mSize;
         for(int i=0;i<len;i++){
             if(block==items[i]){
                 items[i]=null;
@@ -89,66 +90,100 @@ public class ItemGroup<T extends Block> {
             }
         }
         if(found){
-            trimToSize();
+            trimNullItems();
         }
     }
     public void add(T block){
         if(block==null){
             return;
         }
-        int index=items.length;
-        T[] update=createNew(index+1);
-        System.arraycopy(items, 0, update, 0, index);
-        update[index]=block;
+        ensureCapacity(mSize+1);
+        items[mSize]=block;
+        mSize++;
+    }
+    public void addAll(Collection<? extends T> blockList){
+        if(blockList==null || blockList.size()==0){
+            return;
+        }
+        ensureCapacity(mSize+blockList.size());
+        for(T block:blockList){
+            if(block!=null){
+                items[mSize]=block;
+                mSize++;
+            }
+        }
+    }
+    /**
+     * Grows the backing array to hold at least the given number of items,
+     * growth is geometric so repeated add calls stay linear
+     */
+    public void ensureCapacity(int capacity){
+        int oldCapacity=items.length;
+        if(capacity<=oldCapacity){
+            return;
+        }
+        int grow=oldCapacity + (oldCapacity >> 1);
+        if(grow<capacity){
+            grow=capacity;
+        }
+        T[] update=createNew(grow);
+        System.arraycopy(items, 0, update, 0, mSize);
         items=update;
     }
+    /**
+     * Returns items array of exactly {@link #size()} length,
+     * the backing array itself if it has no spare capacity otherwise a copy
+     */
     public T[] getItems(){
+        T[] results=items;
+        int size=mSize;
+        if(results.length==size){
+            return results;
+        }
+        results=createNew(size);
+        System.arraycopy(items, 0, results, 0, size);
+        return results;
+    }
+    // backing array, only the first size() slots are in use
+    T[] getItemsInternal(){
         return items;
     }
-    private void trimToSize(){
-        int count=countNonNull();
-        int len=items.length;
-        if(count==len){
-            return;
-        }
-        T[] update=createNew(count);
+    private void trimNullItems(){
+        int len=mSize;
         int index=0;
         for(int i=0;i<len;i++){
             T block=items[i];
             if(block!=null){
-                update[index]=block;
+                items[index]=block;
                 index++;
             }
         }
-        items=update;
-    }
-    private int countNonNull(){
-        int result=0;
-        for(T t:items){
-            if(t!=null){
-                result++;
-            }
+        for(int i=index;i<len;i++){
+            items[i]=null;
         }
-        return result;
+        mSize=index;
     }
     private T[] createNew(int len){
         return mBlockArrayCreator.newInstance(len);
     }
     @Override
     public int hashCode(){
+        if(hashCode==0){
+            hashCode=(getClass().getName()+"-"+getName()).hashCode();
+        }
         return hashCode;
     }
     @Override
     public boolean equals(Object obj){
         if(obj instanceof StringGroup){
             StringGroup other=(StringGroup)obj;
-            return hashCode==other.hashCode();
+            return hashCode()==other.hashCode();
         }
         return false;
     }
     @Override
     public String toString(){
-        return items.length+"{"+name+"}";
+        return mSize+"{"+getName()+"}";
     }
 
 
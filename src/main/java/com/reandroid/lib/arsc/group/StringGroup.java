@@ -22,4 +22,18 @@ public class StringGroup<T extends StringItem> extends ItemGroup<T>{
     public StringGroup(BlockArrayCreator<T> blockArrayCreator, String name){
         super(blockArrayCreator, name);
     }
+    /**
+     * Group named after its first item's string, decoded only when needed
+     * */
+    public StringGroup(BlockArrayCreator<T> blockArrayCreator){
+        super(blockArrayCreator, null);
+    }
+    @Override
+    public String getName(){
+        String name=super.getName();
+        if(name==null && size()>0){
+            name=get(0).getHtml();
+        }
+        return name;
+    }
 }
@@ -0,0 +1,162 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.io;
+
+import com.reandroid.lib.arsc.base.Block;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Collects small writes of blocks on a buffer and writes to channel only when the buffer
+ * is full. Large arrays are not copied, they are written along with buffered bytes by
+ * single gathering write. The channel is not closed by this writer.
+ * */
+public class BlockChannelWriter extends OutputStream {
+    private final WritableByteChannel mChannel;
+    private final GatheringByteChannel mGatheringChannel;
+    private final ByteBuffer mBuffer;
+    private final ByteBuffer[] mGatherBuffers;
+    private long mLength;
+    /**
+     * Writes through caller supplied {@param buffer}, thus the same buffer can be reused
+     * by consecutive writers. The buffer is cleared first and must not be shared while in use.
+     * */
+    public BlockChannelWriter(WritableByteChannel channel, ByteBuffer buffer){
+        this.mChannel=channel;
+        ((Buffer)buffer).clear();
+        this.mBuffer=buffer;
+        if(channel instanceof GatheringByteChannel){
+            this.mGatheringChannel=(GatheringByteChannel) channel;
+            this.mGatherBuffers=new ByteBuffer[2];
+        }else {
+            this.mGatheringChannel=null;
+            this.mGatherBuffers=null;
+        }
+    }
+    public BlockChannelWriter(WritableByteChannel channel, int bufferSize){
+        this(channel, channel instanceof GatheringByteChannel ?
+                ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize));
+    }
+    public BlockChannelWriter(WritableByteChannel channel){
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+    /**
+     * Total number of bytes written to this stream, including those not yet flushed
+     * */
+    public long getLength(){
+        return mLength;
+    }
+    @Override
+    public void write(int b) throws IOException {
+        ByteBuffer buffer=mBuffer;
+        if(!buffer.hasRemaining()){
+            flushBuffer();
+        }
+        buffer.put((byte) b);
+        mLength++;
+    }
+    @Override
+    public void write(byte[] bts, int offset, int length) throws IOException {
+        ByteBuffer buffer=mBuffer;
+        int remaining=buffer.remaining();
+        if(length<=remaining){
+            buffer.put(bts, offset, length);
+        }else if(length<buffer.capacity()){
+            buffer.put(bts, offset, remaining);
+            flushBuffer();
+            buffer.put(bts, offset+remaining, length-remaining);
+        }else {
+            writeGathering(ByteBuffer.wrap(bts, offset, length));
+        }
+        mLength+=length;
+    }
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+    }
+    private void flushBuffer() throws IOException {
+        ByteBuffer buffer=mBuffer;
+        if(buffer.position()==0){
+            return;
+        }
+        // cast for java 8 compatibility
+        ((Buffer)buffer).flip();
+        while (buffer.hasRemaining()){
+            mChannel.write(buffer);
+        }
+        ((Buffer)buffer).clear();
+    }
+    private void writeGathering(ByteBuffer large) throws IOException {
+        GatheringByteChannel channel=mGatheringChannel;
+        if(channel==null){
+            flushBuffer();
+            while (large.hasRemaining()){
+                mChannel.write(large);
+            }
+            return;
+        }
+        ByteBuffer buffer=mBuffer;
+        ((Buffer)buffer).flip();
+        ByteBuffer[] buffers=mGatherBuffers;
+        buffers[0]=buffer;
+        buffers[1]=large;
+        while (large.hasRemaining()){
+            channel.write(buffers);
+        }
+        buffers[1]=null;
+        ((Buffer)buffer).clear();
+    }
+
+    /**
+     * Writes {@param block} to {@param channel}, returns number of bytes written.
+     * Each thread reuses its own direct buffer of at most {@link #DEFAULT_BUFFER_SIZE},
+     * it is allocated small and replaced once by the full size if a larger block is written.
+     * */
+    public static int write(Block block, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer=THREAD_BUFFER.get();
+        // taken out while in use, a nested write on this thread gets its own buffer
+        THREAD_BUFFER.set(null);
+        int bufferSize=Math.min(Math.max(block.countBytes(), MIN_BUFFER_SIZE), DEFAULT_BUFFER_SIZE);
+        if(buffer==null || buffer.capacity()<bufferSize){
+            if(buffer!=null){
+                bufferSize=DEFAULT_BUFFER_SIZE;
+            }
+            buffer=ByteBuffer.allocateDirect(bufferSize);
+        }
+        try {
+            BlockChannelWriter writer=new BlockChannelWriter(channel, buffer);
+            int length=block.writeBytes(writer);
+            writer.flush();
+            return length;
+        }finally {
+            THREAD_BUFFER.set(buffer);
+        }
+    }
+
+    private static final ThreadLocal<ByteBuffer> THREAD_BUFFER=new ThreadLocal<>();
+    private static final int MIN_BUFFER_SIZE=64*1024;
+
+    public static final int DEFAULT_BUFFER_SIZE=1024*1024;
+}
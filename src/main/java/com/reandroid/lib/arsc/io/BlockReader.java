@@ -19,16 +19,25 @@ import com.reandroid.lib.arsc.header.AnyHeader;
 import com.reandroid.lib.arsc.header.HeaderBlock;
 
 import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 
  public class BlockReader extends InputStream {
     private final Object mLock=new Object();
     private byte[] BUFFER;
+    private ByteBuffer mByteBuffer;
     private final int mStart;
     private final int mLength;
     private int mPosition;
     private boolean mIsClosed;
     private int mMark;
+    private boolean mSynchronized=true;
+    private boolean mZeroCopy;
+    private boolean mLazyLoad;
+    private boolean mParallelLoad;
     public BlockReader(byte[] buffer, int start, int length) {
         this.BUFFER=buffer;
         this.mStart=start;
@@ -38,6 +47,19 @@ import java.io.*;
     public BlockReader(byte[] buffer) {
         this(buffer, 0, buffer.length);
     }
+    /**
+     * Reads directly from {@param byteBuffer} (e.g. {@link MappedByteBuffer}) without
+     * copying it to heap, {@param start} is absolute index on the buffer
+     * */
+    public BlockReader(ByteBuffer byteBuffer, int start, int length) {
+        this.mByteBuffer=byteBuffer.duplicate();
+        this.mStart=start;
+        this.mLength=length;
+        this.mPosition =0;
+    }
+    public BlockReader(ByteBuffer byteBuffer) {
+        this(byteBuffer, byteBuffer.position(), byteBuffer.remaining());
+    }
     public BlockReader(InputStream in) throws IOException {
         this(loadBuffer(in));
     }
@@ -62,25 +84,52 @@ import java.io.*;
         if(mIsClosed || mPosition>=mLength){
             return -1;
         }
+        if(!mSynchronized){
+            return searchNextIntPositionInternal(bytesOffset, value);
+        }
         synchronized (mLock){
-            int actPos=mStart+mPosition+bytesOffset;
-            int max=available()/4;
-            for(int i=0;i<max;i++){
-                int pos=actPos+(i*4);
-                int valCur=toInt(BUFFER, pos);
-                if(valCur==value){
-                    return pos-mStart;
-                }
-            }
-            return -1;
+            return searchNextIntPositionInternal(bytesOffset, value);
         }
     }
-    private int toInt(byte[] bts, int offset){
-        return bts[offset] & 0xff |
-                (bts[offset+1] & 0xff) << 8 |
-                (bts[offset+2] & 0xff) << 16 |
-                (bts[offset+3] & 0xff) << 24;
+    private int searchNextIntPositionInternal(int bytesOffset, int value){
+        int actPos=mStart+mPosition+bytesOffset;
+        int max=available()/4;
+        for(int i=0;i<max;i++){
+            int pos=actPos+(i*4);
+            int valCur=toInt(pos);
+            if(valCur==value){
+                return pos-mStart;
+            }
+        }
+        return -1;
+    }
+    private int toInt(int offset){
+        return getByte(offset) & 0xff |
+                (getByte(offset+1) & 0xff) << 8 |
+                (getByte(offset+2) & 0xff) << 16 |
+                (getByte(offset+3) & 0xff) << 24;
+    }
+    private byte getByte(int actPos){
+        byte[] buffer=BUFFER;
+        if(buffer!=null){
+            return buffer[actPos];
+        }
+        return mByteBuffer.get(actPos);
     }
+    private void copyTo(int actPos, byte[] bts, int start, int length){
+        byte[] buffer=BUFFER;
+        if(buffer!=null){
+            System.arraycopy(buffer, actPos, bts, start, length);
+            return;
+        }
+        ByteBuffer byteBuffer=mByteBuffer;
+        // cast for java 8 compatibility, ByteBuffer.position(int) is covariant since java 9
+        ((Buffer)byteBuffer).position(actPos);
+        byteBuffer.get(bts, start, length);
+    }
+    /**
+     * Returns null if this reader is backed by {@link ByteBuffer}
+     * */
     public byte[] getBuffer(){
         return BUFFER;
     }
@@ -90,7 +139,62 @@ import java.io.*;
             len= mLength -start;
         }
         start=start+mStart;
-        return new BlockReader(BUFFER, start, len);
+        BlockReader reader;
+        if(BUFFER==null && mByteBuffer!=null){
+            reader=new BlockReader(mByteBuffer, start, len);
+        }else {
+            reader=new BlockReader(BUFFER, start, len);
+        }
+        reader.mSynchronized=mSynchronized;
+        reader.mLazyLoad=mLazyLoad;
+        reader.mParallelLoad=mParallelLoad;
+        reader.mZeroCopy=mZeroCopy;
+        return reader;
+    }
+    /**
+     * By default all reads are synchronized, if this reader is consumed by a single thread
+     * (e.g. loading table block) call setSynchronized(false) to skip locking on every read.
+     * Readers created from this reader inherit the same mode.
+     * */
+    public void setSynchronized(boolean is_synchronized){
+        this.mSynchronized=is_synchronized;
+    }
+    public boolean isSynchronized(){
+        return mSynchronized;
+    }
+    /**
+     * When enabled, loaded items point to a window of this reader's buffer instead of
+     * copying to their own arrays (copy-on-write), this saves lots of small allocations
+     * but the whole buffer stays in memory as long as any loaded item is alive.
+     * The buffer must not be modified after reading.
+     * Only applicable for byte array backed readers.
+     * */
+    public void setZeroCopy(boolean zeroCopy){
+        this.mZeroCopy=zeroCopy;
+    }
+    public boolean isZeroCopy(){
+        return mZeroCopy && BUFFER!=null;
+    }
+    /**
+     * When enabled, chunks that support it (e.g. TypeBlock) keep their raw bytes and
+     * parse childes only when first accessed, untouched chunks are written back as is
+     * */
+    public void setLazyLoad(boolean lazyLoad){
+        this.mLazyLoad=lazyLoad;
+    }
+    public boolean isLazyLoad(){
+        return mLazyLoad;
+    }
+    /**
+     * When enabled, type blocks of each package are parsed concurrently on common fork-join pool,
+     * entries are linked to package and string pools afterwards in file order.
+     * Ignored if lazy load is enabled.
+     * */
+    public void setParallelLoad(boolean parallelLoad){
+        this.mParallelLoad=parallelLoad;
+    }
+    public boolean isParallelLoad(){
+        return mParallelLoad;
     }
     public boolean isAvailable(){
         if(mIsClosed){
@@ -114,6 +218,10 @@ import java.io.*;
         if(pos==mPosition){
             return;
         }
+        if(!mSynchronized){
+            mPosition=pos;
+            return;
+        }
         synchronized (mLock){
             mPosition=pos;
         }
@@ -141,28 +249,34 @@ import java.io.*;
         if(mIsClosed || mPosition>=mLength){
             return 0;
         }
+        if(!mSynchronized){
+            return lengthUntilNextZeroInternal(offset, zeroCount);
+        }
         synchronized (mLock){
-            int actPos=mStart+mPosition-1;
-            int max=available();
-            int remZero=zeroCount;
-            int len=0;
-            for(int i=0;i<max;i++){
-                actPos++;
-                len++;
-                if(i<offset){
-                    continue;
-                }
-                if(BUFFER[actPos]!=0){
-                    remZero=zeroCount;
-                    continue;
-                }
-                remZero--;
-                if(remZero<=0){
-                    break;
-                }
+            return lengthUntilNextZeroInternal(offset, zeroCount);
+        }
+    }
+    private int lengthUntilNextZeroInternal(int offset, int zeroCount){
+        int actPos=mStart+mPosition-1;
+        int max=available();
+        int remZero=zeroCount;
+        int len=0;
+        for(int i=0;i<max;i++){
+            actPos++;
+            len++;
+            if(i<offset){
+                continue;
+            }
+            if(getByte(actPos)!=0){
+                remZero=zeroCount;
+                continue;
+            }
+            remZero--;
+            if(remZero<=0){
+                break;
             }
-            return len;
         }
+        return len;
     }
     public int readFully(byte[] bts) throws IOException{
         return readFully(bts, 0, bts.length);
@@ -188,19 +302,59 @@ import java.io.*;
         if(length<len){
             len=length;
         }
+        if(!mSynchronized){
+            return readFullyInternal(bts, start, len);
+        }
         synchronized (mLock){
-            int actPos=mStart+mPosition;
-            int j;
-            for(j=0;j<len;j++){
-                bts[start+j]=BUFFER[actPos+j];
-                mPosition++;
-                if(mPosition>=mLength){
-                    j++;
-                    break;
-                }
+            return readFullyInternal(bts, start, len);
+        }
+    }
+    private int readFullyInternal(byte[] bts, int start, int len){
+        int avail=mLength-mPosition;
+        if(len>avail){
+            len=avail;
+        }
+        copyTo(mStart+mPosition, bts, start, len);
+        mPosition+=len;
+        return len;
+    }
+    /**
+     * Reads single byte without allocating
+     * */
+    public byte readByte() throws IOException {
+        int actPos=requireAvailable(1);
+        return getByte(actPos);
+    }
+    /**
+     * Reads little-endian short without allocating
+     * */
+    public short readShortLE() throws IOException {
+        int actPos=requireAvailable(2);
+        return (short) (getByte(actPos) & 0xff | (getByte(actPos+1) & 0xff) << 8);
+    }
+    /**
+     * Reads little-endian integer without allocating
+     * */
+    public int readIntLE() throws IOException {
+        int actPos=requireAvailable(4);
+        return toInt(actPos);
+    }
+    private int requireAvailable(int length) throws IOException {
+        if(mIsClosed){
+            throw new IOException("Stream is closed");
+        }
+        int pos=mPosition;
+        if(pos+length>mLength){
+            throw new EOFException("Finished reading: "+pos);
+        }
+        if(!mSynchronized){
+            mPosition=pos+length;
+        }else {
+            synchronized (mLock){
+                mPosition=pos+length;
             }
-            return j;
         }
+        return mStart+pos;
     }
     public int getPosition(){
         return mPosition;
@@ -220,14 +374,36 @@ import java.io.*;
         if(i>=mLength){
             throw new EOFException("Finished reading: "+i);
         }
+        if(!mSynchronized){
+            mPosition++;
+            return getByte(mStart+i) & 0xff;
+        }
         synchronized (mLock){
             int actPos=mStart+i;
-            int val=BUFFER[actPos] & 0xff;
+            int val=getByte(actPos) & 0xff;
             mPosition++;
             return val;
         }
     }
     @Override
+    public int read(byte[] bts, int start, int length) throws IOException {
+        if(length==0){
+            return 0;
+        }
+        if(mIsClosed){
+            throw new IOException("Stream is closed");
+        }
+        if(mPosition>=mLength){
+            return -1;
+        }
+        if(!mSynchronized){
+            return readFullyInternal(bts, start, length);
+        }
+        synchronized (mLock){
+            return readFullyInternal(bts, start, length);
+        }
+    }
+    @Override
     public void mark(int pos){
         mMark=pos;
     }
@@ -246,6 +422,7 @@ import java.io.*;
     public void close(){
         mIsClosed=true;
         BUFFER=null;
+        mByteBuffer=null;
         mMark=0;
     }
     @Override
@@ -278,6 +455,28 @@ import java.io.*;
     }
 
 
+    /**
+     * Maps {@param file} to memory and reads directly from page cache, thus large files
+     * (e.g resources.arsc) are parsed without staging whole file bytes on heap.
+     * NB: on some platforms (e.g. Windows) the file remains locked until the mapped
+     * buffer is garbage collected
+     * */
+    public static BlockReader map(File file) throws IOException {
+        return new BlockReader(mapBuffer(file));
+    }
+    private static MappedByteBuffer mapBuffer(File file) throws IOException {
+        RandomAccessFile randomAccessFile=new RandomAccessFile(file, "r");
+        try{
+            FileChannel channel=randomAccessFile.getChannel();
+            long size=channel.size();
+            if(size > Integer.MAX_VALUE){
+                throw new IOException("File too large to map: size="+size+", "+file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }finally {
+            randomAccessFile.close();
+        }
+    }
     private static byte[] loadBuffer(File file) throws IOException {
         FileInputStream in=new FileInputStream(file);
         byte[] result = loadBuffer(in);
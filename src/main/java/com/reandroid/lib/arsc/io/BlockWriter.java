@@ -0,0 +1,140 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.io;
+
+import com.reandroid.lib.arsc.base.Block;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed size output, blocks write their bytes directly at the current position
+ * of a pre-allocated byte array or ByteBuffer. Writing beyond the capacity fails.
+ * */
+public class BlockWriter extends OutputStream {
+    private final byte[] BUFFER;
+    private final ByteBuffer mByteBuffer;
+    private final int mStart;
+    private final int mLength;
+    private int mPosition;
+    public BlockWriter(byte[] buffer, int start, int length){
+        this.BUFFER=buffer;
+        this.mByteBuffer=null;
+        this.mStart=start;
+        this.mLength=length;
+    }
+    public BlockWriter(byte[] buffer){
+        this(buffer, 0, buffer.length);
+    }
+    /**
+     * Writes to {@param byteBuffer} starting from its current position,
+     * the position of {@param byteBuffer} is advanced as bytes are written
+     * */
+    public BlockWriter(ByteBuffer byteBuffer){
+        this.BUFFER=null;
+        this.mByteBuffer=byteBuffer;
+        this.mStart=byteBuffer.position();
+        this.mLength=byteBuffer.remaining();
+    }
+    public int getPosition(){
+        return mPosition;
+    }
+    public int available(){
+        return mLength-mPosition;
+    }
+    @Override
+    public void write(int b) throws IOException {
+        requireAvailable(1);
+        if(BUFFER!=null){
+            BUFFER[mStart+mPosition]=(byte) b;
+        }else {
+            mByteBuffer.put((byte) b);
+        }
+        mPosition++;
+    }
+    @Override
+    public void write(byte[] bts, int offset, int length) throws IOException {
+        if(length==0){
+            return;
+        }
+        requireAvailable(length);
+        if(BUFFER!=null){
+            System.arraycopy(bts, offset, BUFFER, mStart+mPosition, length);
+        }else {
+            mByteBuffer.put(bts, offset, length);
+        }
+        mPosition+=length;
+    }
+    private void requireAvailable(int length) throws IOException {
+        if(length>available()){
+            throw new IOException("Buffer overflow: position="+mPosition
+                    +", length="+length+", capacity="+mLength);
+        }
+    }
+    @Override
+    public String toString(){
+        return "pos="+mPosition+"/"+mLength;
+    }
+
+    /**
+     * Serializes {@param block} with single allocation of exactly countBytes() size,
+     * returns empty array for null or empty blocks
+     * */
+    public static byte[] toBytes(Block block){
+        if(block.isNull()){
+            return new byte[0];
+        }
+        int length=block.countBytes();
+        if(length==0){
+            return new byte[0];
+        }
+        byte[] results=new byte[length];
+        writeFully(block, new BlockWriter(results));
+        return results;
+    }
+    /**
+     * Same as toBytes but to heap or direct ByteBuffer, the returned buffer is flipped
+     * (position=0, limit=countBytes())
+     * */
+    public static ByteBuffer toByteBuffer(Block block, boolean direct){
+        int length=block.isNull()?0:block.countBytes();
+        ByteBuffer byteBuffer;
+        if(direct){
+            byteBuffer=ByteBuffer.allocateDirect(length);
+        }else {
+            byteBuffer=ByteBuffer.allocate(length);
+        }
+        if(length>0){
+            writeFully(block, new BlockWriter(byteBuffer));
+        }
+        ((Buffer)byteBuffer).flip();
+        return byteBuffer;
+    }
+    private static void writeFully(Block block, BlockWriter writer){
+        try {
+            block.writeBytes(writer);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to write "
+                    +block.getClass().getSimpleName()+": "+ex.getMessage(), ex);
+        }
+        if(writer.available()!=0){
+            throw new IllegalStateException("Mismatch countBytes & written bytes of "
+                    +block.getClass().getSimpleName()+": "+writer);
+        }
+    }
+}
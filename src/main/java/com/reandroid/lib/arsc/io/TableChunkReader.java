@@ -0,0 +1,323 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.io;
+
+import com.reandroid.lib.arsc.chunk.ChunkType;
+import com.reandroid.lib.arsc.value.ResConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams table chunks directly from {@link BlockReader} to {@link TableVisitor},
+ * read only and no entry, string or reference blocks are created.
+ * Use {@link com.reandroid.lib.arsc.chunk.TableBlock} for editing.
+ * */
+public class TableChunkReader {
+    private final BlockReader reader;
+    private final TableVisitor visitor;
+    private byte[] mBuffer;
+    private int mChunkType;
+    private int mHeaderSize;
+    private int mChunkSize;
+    private int mPackageId;
+    public TableChunkReader(BlockReader reader, TableVisitor visitor){
+        this.reader=reader;
+        this.visitor=visitor;
+    }
+    public void read() throws IOException {
+        int start=reader.getPosition();
+        int end=readChunkHeader(start);
+        if(mChunkType!=ChunkType.TABLE.ID){
+            throw new IOException("Not TableBlock: type="
+                    +String.format("0x%04x", mChunkType)+", "+reader);
+        }
+        int packageCount=reader.readIntLE();
+        visitor.visitTable(packageCount);
+        int pos=start+mHeaderSize;
+        while (pos+HEADER_SIZE<=end){
+            int chunkEnd=readChunkHeader(pos);
+            if(mChunkType==ChunkType.STRING.ID){
+                readStringPool(pos, POOL_TABLE);
+            }else if(mChunkType==ChunkType.PACKAGE.ID){
+                readPackage(pos, chunkEnd);
+            }
+            pos=chunkEnd;
+        }
+        reader.seek(end);
+        visitor.visitEnd();
+    }
+    private void readPackage(int start, int end) throws IOException {
+        int headerSize=mHeaderSize;
+        int packageId=reader.readIntLE();
+        String name=readPackageName();
+        int typeStrings=reader.readIntLE();
+        reader.readIntLE();
+        int specStrings=reader.readIntLE();
+        mPackageId=packageId;
+        if(!visitor.visitPackage(packageId, name)){
+            return;
+        }
+        int pos=start+headerSize;
+        while (pos+HEADER_SIZE<=end){
+            int chunkEnd=readChunkHeader(pos);
+            int type=mChunkType;
+            if(type==ChunkType.STRING.ID){
+                int relative=pos-start;
+                if(relative==typeStrings){
+                    readStringPool(pos, POOL_TYPE);
+                }else if(relative==specStrings){
+                    readStringPool(pos, POOL_SPEC);
+                }
+            }else if(type==ChunkType.SPEC.ID){
+                int typeId=reader.readByte() & 0xff;
+                reader.readByte();
+                reader.readShortLE();
+                visitor.visitTypeSpec(typeId, reader.readIntLE());
+            }else if(type==ChunkType.TYPE.ID){
+                readType(pos, chunkEnd);
+            }
+            pos=chunkEnd;
+        }
+    }
+    private String readPackageName() throws IOException {
+        StringBuilder builder=new StringBuilder();
+        boolean finished=false;
+        for(int i=0;i<PACKAGE_NAME_LENGTH;i++){
+            char ch=(char) reader.readShortLE();
+            if(ch==0){
+                finished=true;
+            }
+            if(!finished){
+                builder.append(ch);
+            }
+        }
+        return builder.toString();
+    }
+    private void readType(int start, int end) throws IOException {
+        int headerSize=mHeaderSize;
+        int typeId=reader.readByte() & 0xff;
+        int typeFlags=reader.readByte() & 0xff;
+        boolean sparse=(typeFlags & FLAG_SPARSE)!=0;
+        boolean offset16=!sparse && (typeFlags & FLAG_OFFSET16)!=0;
+        int offsetSize=offset16?2:4;
+        reader.readShortLE();
+        int offsetCount=reader.readIntLE();
+        int entriesStart=reader.readIntLE();
+        ResConfig resConfig=new ResConfig();
+        resConfig.readBytes(reader);
+        int offsetsStart=start+headerSize;
+        if(offsetsStart+offsetCount*offsetSize>end){
+            throw new IOException("Invalid entry count: "+offsetCount+", "+reader);
+        }
+        int entryCount=offsetCount;
+        if(sparse && offsetCount>0){
+            // sorted by entry id, the last one has the highest
+            reader.seek(offsetsStart+(offsetCount-1)*4);
+            entryCount=(reader.readIntLE() & 0xffff)+1;
+        }
+        if(!visitor.visitType(typeId, entryCount, resConfig)){
+            return;
+        }
+        int idPrefix=(mPackageId << 24) | (typeId << 16);
+        entriesStart=start+entriesStart;
+        for(int i=0;i<offsetCount;i++){
+            reader.seek(offsetsStart+i*offsetSize);
+            int entryId=i;
+            int offset;
+            if(offset16){
+                offset=reader.readShortLE() & 0xffff;
+                if(offset==0xffff){
+                    continue;
+                }
+                offset=offset * 4;
+            }else {
+                offset=reader.readIntLE();
+            }
+            if(sparse){
+                entryId=offset & 0xffff;
+                offset=(offset >>> 16) * 4;
+            }else if(offset==-1){
+                continue;
+            }
+            int entryStart=entriesStart+offset;
+            if(offset<0 || entryStart+ENTRY_HEADER_SIZE>end){
+                throw new IOException("Invalid entry offset: "+offset+", "+reader);
+            }
+            readEntry(idPrefix | entryId, entryStart);
+        }
+    }
+    private void readEntry(int resourceId, int start) throws IOException {
+        TableVisitor visitor=this.visitor;
+        BlockReader reader=this.reader;
+        reader.seek(start);
+        int size=reader.readShortLE() & 0xffff;
+        int flags=reader.readShortLE() & 0xffff;
+        int specReference=reader.readIntLE();
+        if((flags & FLAG_COMPACT)!=0){
+            // key, flags, value type (high byte of flags) and data
+            byte valueType=(byte) (flags >>> 8);
+            flags=flags & 0xff & ~FLAG_COMPACT;
+            visitor.visitEntry(resourceId, flags, size, valueType, specReference);
+            return;
+        }
+        if((flags & FLAG_COMPLEX)==0){
+            reader.seek(start+size);
+            reader.readShortLE();
+            reader.readByte();
+            byte valueType=reader.readByte();
+            visitor.visitEntry(resourceId, flags, specReference, valueType, reader.readIntLE());
+            return;
+        }
+        int parentId=reader.readIntLE();
+        int count=reader.readIntLE();
+        visitor.visitBag(resourceId, flags, specReference, parentId, count);
+        reader.seek(start+size);
+        for(int i=0;i<count;i++){
+            int name=reader.readIntLE();
+            reader.readShortLE();
+            reader.readByte();
+            byte valueType=reader.readByte();
+            visitor.visitBagItem(resourceId, name, valueType, reader.readIntLE());
+        }
+    }
+    private void readStringPool(int start, int poolType) throws IOException {
+        int headerSize=mHeaderSize;
+        int chunkSize=mChunkSize;
+        int count=reader.readIntLE();
+        reader.readIntLE();
+        int flags=reader.readIntLE();
+        int stringsStart=reader.readIntLE();
+        boolean utf8=(flags & FLAG_UTF8)!=0;
+        boolean visit;
+        if(poolType==POOL_TABLE){
+            visit=visitor.visitTableStrings(count, utf8);
+        }else if(poolType==POOL_TYPE){
+            visit=visitor.visitTypeStrings(count, utf8);
+        }else {
+            visit=visitor.visitSpecStrings(count, utf8);
+        }
+        if(!visit || count==0){
+            return;
+        }
+        if(headerSize+count*4>chunkSize || stringsStart>chunkSize){
+            throw new IOException("Invalid string pool: count="+count+", "+reader);
+        }
+        byte[] bytes=reader.getBuffer();
+        int base;
+        if(bytes!=null){
+            base=reader.getStartPosition()+start;
+        }else {
+            bytes=obtainBuffer(chunkSize);
+            reader.seek(start);
+            reader.readFully(bytes, 0, chunkSize);
+            base=0;
+        }
+        int end=base+chunkSize;
+        int offsets=base+headerSize;
+        stringsStart=base+stringsStart;
+        for(int i=0;i<count;i++){
+            int offset=stringsStart+toInt(bytes, offsets+i*4);
+            if(offset<stringsStart || offset+4>end){
+                throw new IOException("Invalid string offset: index="+i+", "+reader);
+            }
+            int length;
+            if(utf8){
+                offset+=((bytes[offset] & 0x80)!=0)?2:1;
+                length=bytes[offset] & 0xff;
+                offset++;
+                if((length & 0x80)!=0){
+                    length=((length & 0x7f) << 8) | (bytes[offset] & 0xff);
+                    offset++;
+                }
+            }else {
+                length=(bytes[offset] & 0xff) | (bytes[offset+1] & 0xff) << 8;
+                offset+=2;
+                if((length & 0x8000)!=0){
+                    length=((length & 0x7fff) << 16)
+                            | (bytes[offset] & 0xff) | (bytes[offset+1] & 0xff) << 8;
+                    offset+=2;
+                }
+                length=length*2;
+            }
+            if(offset+length>end){
+                throw new IOException("Invalid string offset: index="+i+", "+reader);
+            }
+            visitor.visitString(i, bytes, offset, length);
+        }
+    }
+    private byte[] obtainBuffer(int length){
+        byte[] buffer=mBuffer;
+        if(buffer==null || buffer.length<length){
+            buffer=new byte[length];
+            mBuffer=buffer;
+        }
+        return buffer;
+    }
+    /**
+     * Reads chunk header at {@param position} and leaves the reader just after it,
+     * returns end position of the chunk
+     * */
+    private int readChunkHeader(int position) throws IOException {
+        reader.seek(position);
+        mChunkType=reader.readShortLE();
+        mHeaderSize=reader.readShortLE() & 0xffff;
+        mChunkSize=reader.readIntLE();
+        int end=position+mChunkSize;
+        if(mHeaderSize<HEADER_SIZE || mChunkSize<mHeaderSize || end>reader.length()){
+            throw new IOException("Invalid chunk: type="+String.format("0x%04x", mChunkType)
+                    +", header="+mHeaderSize+", size="+mChunkSize+", "+reader);
+        }
+        return end;
+    }
+    private static int toInt(byte[] bytes, int offset){
+        return bytes[offset] & 0xff |
+                (bytes[offset+1] & 0xff) << 8 |
+                (bytes[offset+2] & 0xff) << 16 |
+                (bytes[offset+3] & 0xff) << 24;
+    }
+
+    public static void read(File file, TableVisitor visitor) throws IOException {
+        BlockReader reader=BlockReader.map(file);
+        read(reader, visitor);
+    }
+    public static void read(InputStream inputStream, TableVisitor visitor) throws IOException {
+        BlockReader reader=new BlockReader(inputStream);
+        read(reader, visitor);
+    }
+    private static void read(BlockReader reader, TableVisitor visitor) throws IOException {
+        reader.setSynchronized(false);
+        try{
+            new TableChunkReader(reader, visitor).read();
+        }finally {
+            reader.close();
+        }
+    }
+
+    private static final int HEADER_SIZE=8;
+    private static final int ENTRY_HEADER_SIZE=8;
+    private static final int PACKAGE_NAME_LENGTH=128;
+    private static final int FLAG_COMPLEX=0x0001;
+    private static final int FLAG_COMPACT=0x0008;
+    private static final int FLAG_SPARSE=0x01;
+    private static final int FLAG_OFFSET16=0x02;
+    private static final int FLAG_UTF8=0x0100;
+
+    private static final int POOL_TABLE=0;
+    private static final int POOL_TYPE=1;
+    private static final int POOL_SPEC=2;
+}
@@ -0,0 +1,75 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.io;
+
+import com.reandroid.lib.arsc.value.ResConfig;
+
+/**
+ * Receives table (resources.arsc) contents in file order from {@link TableChunkReader}
+ * without building block tree. All methods do nothing by default, override only what
+ * is needed. Methods returning boolean can return false to skip the contents of that chunk.
+ * */
+public abstract class TableVisitor {
+    public void visitTable(int packageCount){
+    }
+    /**
+     * Global (table) string pool, strings follow through {@link #visitString(int, byte[], int, int)}
+     * */
+    public boolean visitTableStrings(int stringCount, boolean utf8){
+        return false;
+    }
+    public boolean visitPackage(int packageId, String packageName){
+        return true;
+    }
+    /**
+     * Type names pool of current package
+     * */
+    public boolean visitTypeStrings(int stringCount, boolean utf8){
+        return false;
+    }
+    /**
+     * Entry names (keys) pool of current package
+     * */
+    public boolean visitSpecStrings(int stringCount, boolean utf8){
+        return false;
+    }
+    /**
+     * Encoded string bytes of the current pool, without length prefix and null terminator.
+     * The array is shared, it is valid only during this call.
+     * */
+    public void visitString(int index, byte[] bytes, int offset, int length){
+    }
+    public void visitTypeSpec(int typeId, int entryCount){
+    }
+    public boolean visitType(int typeId, int entryCount, ResConfig resConfig){
+        return true;
+    }
+    /**
+     * Simple entry, {@param specReference} is index on spec strings
+     * */
+    public void visitEntry(int resourceId, int flags, int specReference, byte valueType, int data){
+    }
+    /**
+     * Complex entry (e.g. style, array ... ), followed by {@param count} calls
+     * of {@link #visitBagItem(int, int, byte, int)}
+     * */
+    public void visitBag(int resourceId, int flags, int specReference, int parentId, int count){
+    }
+    public void visitBagItem(int resourceId, int name, byte valueType, int data){
+    }
+    public void visitEnd(){
+    }
+}
@@ -26,25 +26,69 @@ import java.io.OutputStream;
 public abstract class BlockItem extends Block {
 
     private byte[] mBytes;
+    private int mOffset;
+    private int mLength;
+    private boolean mShared;
     public BlockItem(int bytesLength){
         super();
-        mBytes=new byte[bytesLength];
+        // storage is allocated on first access, loaded items might point to shared buffer
+        mLength=bytesLength;
     }
     protected void onBytesChanged(){
     }
+    /**
+     * Returns own bytes (starting at zero with exact length) for modification,
+     * if the bytes are shared with source buffer it is copied first (copy-on-write)
+     * */
     protected byte[] getBytesInternal() {
+        if(mShared || mBytes==null){
+            unShareBytes();
+        }
         return mBytes;
     }
+    private void unShareBytes(){
+        byte[] bts=new byte[mLength];
+        if(mBytes!=null && mLength>0){
+            System.arraycopy(mBytes, mOffset, bts, 0, mLength);
+        }
+        mBytes=bts;
+        mOffset=0;
+        mShared=false;
+    }
     void setBytesInternal(byte[] bts){
         if(bts==null){
             bts=new byte[0];
         }
-        if(bts==mBytes){
+        if(bts==mBytes && !mShared){
             return;
         }
+        int old=mLength;
         mBytes=bts;
+        mOffset=0;
+        mLength=bts.length;
+        mShared=false;
+        if(old!=mLength){
+            notifyCountChanged();
+        }
         onBytesChanged();
     }
+    /**
+     * Points this item to a window of {@param buffer} without copying,
+     * the buffer must not be modified by others
+     * */
+    final void setBytesShared(byte[] buffer, int offset, int length){
+        int old=mLength;
+        mBytes=buffer;
+        mOffset=offset;
+        mLength=length;
+        mShared=true;
+        if(old!=length){
+            notifyCountChanged();
+        }
+    }
+    final boolean isBytesShared(){
+        return mShared;
+    }
     final void setBytesLength(int length){
         setBytesLength(length, true);
     }
@@ -52,7 +96,7 @@ public abstract class BlockItem extends Block {
         if(length<0){
             length=0;
         }
-        int old=mBytes.length;
+        int old=mLength;
         if(length==old){
             return;
         }
@@ -60,14 +104,49 @@ public abstract class BlockItem extends Block {
         if(length<old){
             old=length;
         }
-        System.arraycopy(mBytes, 0, bts, 0, old);
+        if(mBytes!=null && old>0){
+            System.arraycopy(mBytes, mOffset, bts, 0, old);
+        }
         mBytes=bts;
+        mOffset=0;
+        mLength=length;
+        mShared=false;
+        notifyCountChanged();
         if(notify){
             onBytesChanged();
         }
     }
     int getBytesLength(){
-        return mBytes.length;
+        return mLength;
+    }
+    /**
+     * Read only access to the underlying buffer, the bytes of this item
+     * starts at {@link #getBytesOffset()}. Don't modify, use getBytesInternal()
+     * */
+    final byte[] getBytesBuffer(){
+        if(mBytes==null){
+            unShareBytes();
+        }
+        return mBytes;
+    }
+    final int getBytesOffset(){
+        return mOffset;
+    }
+    protected final byte getByteAt(int index){
+        return getBytesBuffer()[mOffset+index];
+    }
+    protected final short getShortAt(int offset){
+        byte[] bts = getBytesBuffer();
+        int i=mOffset+offset;
+        return (short) (bts[i] & 0xff | (bts[i+1] & 0xff) << 8);
+    }
+    protected final int getIntAt(int offset){
+        byte[] bts = getBytesBuffer();
+        int i=mOffset+offset;
+        return bts[i] & 0xff |
+                (bts[i+1] & 0xff) << 8 |
+                (bts[i+2] & 0xff) << 16 |
+                (bts[i+3] & 0xff) << 24;
     }
 
     @Override
@@ -75,14 +154,19 @@ public abstract class BlockItem extends Block {
         if(isNull()){
             return 0;
         }
-        return getBytesInternal().length;
+        return mLength;
     }
     @Override
     public byte[] getBytes() {
         if(isNull()){
             return null;
         }
-        return getBytesInternal();
+        if(!mShared){
+            return getBytesInternal();
+        }
+        byte[] bts=new byte[mLength];
+        System.arraycopy(mBytes, mOffset, bts, 0, mLength);
+        return bts;
     }
     @Override
     public void onCountUpTo(BlockCounter counter) {
@@ -97,13 +181,30 @@ public abstract class BlockItem extends Block {
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException{
-        reader.readFully(getBytesInternal());
+        readBytesInternal(reader, getBytesLength());
         onBytesChanged();
     }
+    /**
+     * Reads {@param length} bytes as content of this item, if the reader is in zero-copy mode
+     * the item points to the reader's buffer otherwise the bytes are copied.
+     * Doesn't call onBytesChanged()
+     * */
+    final void readBytesInternal(BlockReader reader, int length) throws IOException{
+        if(reader.isZeroCopy() && length>0 && length<=reader.available()){
+            setBytesShared(reader.getBuffer(), reader.getActualPosition(), length);
+            reader.offset(length);
+            return;
+        }
+        setBytesLength(length, false);
+        reader.readFully(getBytesInternal());
+    }
     @Override
     protected int onWriteBytes(OutputStream stream) throws IOException {
-        stream.write(getBytesInternal());
-        return getBytesLength();
+        int length=mLength;
+        if(length>0){
+            stream.write(getBytesBuffer(), mOffset, length);
+        }
+        return length;
     }
     public int readBytes(InputStream inputStream) throws IOException {
         byte[] bts=getBytesInternal();
@@ -71,7 +71,7 @@ public class ByteArray extends BlockItem {
         if(index<0 || index>=size()){
             return null;
         }
-        return getBytesInternal()[index];
+        return getByteAt(index);
     }
     public final void put(int index, byte value){
         byte[] bts = getBytesInternal();
@@ -83,8 +83,7 @@ public class ByteArray extends BlockItem {
         bts[offset]= (byte) (val & 0xff);
     }
     public final short getShort(int offset){
-        byte[] bts = getBytesInternal();
-        return (short) (bts[offset] & 0xff | (bts[offset+1] & 0xff) << 8);
+        return getShortAt(offset);
     }
     public final void putInteger(int offset, int val){
         byte[] bts = getBytesInternal();
@@ -94,21 +93,17 @@ public class ByteArray extends BlockItem {
         bts[offset]= (byte) (val & 0xff);
     }
     public final int getInteger(int offset){
-        byte[] bts = getBytesInternal();
-        return bts[offset] & 0xff |
-                (bts[offset+1] & 0xff) << 8 |
-                (bts[offset+2] & 0xff) << 16 |
-                (bts[offset+3] & 0xff) << 24;
+        return getIntAt(offset);
     }
     public final void putByteArray(int offset, byte[] val){
         byte[] bts = getBytesInternal();
         System.arraycopy(val, 0, bts, offset, val.length);
     }
     public final byte[] getByteArray(int offset, int length){
-        byte[] bts = getBytesInternal();
+        byte[] bts = getBytesBuffer();
         byte[] result = new byte[length];
         if (result.length >= 0) {
-            System.arraycopy(bts, offset, result, 0, result.length);
+            System.arraycopy(bts, getBytesOffset() + offset, result, 0, result.length);
         }
         return result;
     }
@@ -15,6 +15,9 @@
   */
 package com.reandroid.lib.arsc.item;
 
+import com.reandroid.lib.arsc.io.BlockReader;
+
+import java.io.IOException;
 
 public class ByteItem extends BlockItem {
     public ByteItem() {
@@ -37,11 +40,19 @@ public class ByteItem extends BlockItem {
         val=left|right;
         set((byte) val);
     }
+    @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        if(reader.isZeroCopy()){
+            super.onReadBytes(reader);
+            return;
+        }
+        set(reader.readByte());
+    }
     public void set(byte b){
         getBytesInternal()[0]=b;
     }
     public byte get(){
-        return getBytesInternal()[0];
+        return getByteAt(0);
     }
     @Override
     public String toString(){
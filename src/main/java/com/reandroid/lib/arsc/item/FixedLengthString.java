@@ -42,7 +42,7 @@
      }
      @Override
      String decodeString(){
-         return decodeUtf16Bytes(getBytesInternal());
+         return decodeUtf16Bytes(getBytes());
      }
      @Override
      public StyleItem getStyle(){
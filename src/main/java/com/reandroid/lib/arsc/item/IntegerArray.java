@@ -64,7 +64,7 @@ public class IntegerArray extends BlockItem {
         int s=size();
         int[] result=new int[s];
         for(int i=0;i<s;i++){
-            result[i]=get(i);
+            result[i]=getIntAt(i*4);
         }
         return result;
     }
@@ -92,12 +92,7 @@ public class IntegerArray extends BlockItem {
         if(index<0 || index>=size()){
             return null;
         }
-        int i=index*4;
-        byte[] bts = getBytesInternal();
-        return bts[i] & 0xff |
-                (bts[i+1] & 0xff) << 8 |
-                (bts[i+2] & 0xff) << 16 |
-                (bts[i+3] & 0xff) << 24;
+        return getIntAt(index*4);
     }
     public final int size(){
         return getBytesLength()/4;
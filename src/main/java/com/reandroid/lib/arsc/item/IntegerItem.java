@@ -15,6 +15,9 @@
   */
 package com.reandroid.lib.arsc.item;
 
+import com.reandroid.lib.arsc.io.BlockReader;
+
+import java.io.IOException;
 
 public class IntegerItem extends BlockItem implements ReferenceItem{
     private int mCache;
@@ -42,16 +45,20 @@ public class IntegerItem extends BlockItem implements ReferenceItem{
         return mCache;
     }
     @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        if(reader.isZeroCopy()){
+            super.onReadBytes(reader);
+            return;
+        }
+        set(reader.readIntLE());
+    }
+    @Override
     protected void onBytesChanged() {
         // To save cpu usage, better to calculate once only when bytes changed
         mCache=readIntBytes();
     }
     private int readIntBytes(){
-        byte[] bts = getBytesInternal();
-        return bts[0] & 0xff |
-                (bts[1] & 0xff) << 8 |
-                (bts[2] & 0xff) << 16 |
-                (bts[3] & 0xff) << 24;
+        return getIntAt(0);
     }
     @Override
     public String toString(){
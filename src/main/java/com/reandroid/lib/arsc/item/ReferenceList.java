@@ -0,0 +1,358 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.item;
+
+import java.util.*;
+
+/**
+ * Insertion ordered list of references with constant time add, contains and remove.
+ * Removed slots are left empty and compacted on a later add, once the list grows beyond
+ * {@link #INDEX_THRESHOLD} items a hash index (item to its slots) is maintained.
+ * Same as ArrayList, duplicates are allowed and remove(Object) removes the first occurrence.
+ * Only indexOf(Object) and get(int) walk the slots, when there are removed slots.
+ * */
+class ReferenceList extends AbstractList<ReferenceItem> {
+    private ReferenceItem[] mSlots;
+    private int mEnd;
+    private int mSize;
+    private Map<ReferenceItem, Slot> mIndex;
+    ReferenceList(){
+        mSlots=EMPTY;
+    }
+    @Override
+    public int size(){
+        return mSize;
+    }
+    @Override
+    public ReferenceItem get(int i){
+        if(i<0 || i>=mSize){
+            throw new IndexOutOfBoundsException("Index: "+i+", Size: "+mSize);
+        }
+        if(mEnd==mSize){
+            return mSlots[i];
+        }
+        ReferenceItem[] slots=mSlots;
+        int end=mEnd;
+        int count=0;
+        for(int j=0;j<end;j++){
+            ReferenceItem item=slots[j];
+            if(item==null){
+                continue;
+            }
+            if(count==i){
+                return item;
+            }
+            count++;
+        }
+        throw new IndexOutOfBoundsException("Index: "+i+", Size: "+mSize);
+    }
+    @Override
+    public boolean add(ReferenceItem item){
+        if(item==null){
+            return false;
+        }
+        ensureSpace();
+        int slot=mEnd;
+        mSlots[slot]=item;
+        mEnd=slot+1;
+        mSize++;
+        modCount++;
+        Map<ReferenceItem, Slot> index=mIndex;
+        if(index!=null){
+            addToIndex(index, item, slot);
+        }else if(mSize>INDEX_THRESHOLD){
+            buildIndex();
+        }
+        return true;
+    }
+    @Override
+    public boolean contains(Object obj){
+        if(obj==null || mSize==0){
+            return false;
+        }
+        Map<ReferenceItem, Slot> index=mIndex;
+        if(index!=null){
+            return index.containsKey(obj);
+        }
+        return findSlot(obj, 0)>=0;
+    }
+    @Override
+    public boolean remove(Object obj){
+        if(!(obj instanceof ReferenceItem)){
+            return false;
+        }
+        Map<ReferenceItem, Slot> index=mIndex;
+        if(index==null){
+            int i=findSlot(obj, 0);
+            if(i<0){
+                return false;
+            }
+            removeSlot(i);
+            return true;
+        }
+        Slot slot=index.get(obj);
+        if(slot==null){
+            return false;
+        }
+        removeSlot(slot.first());
+        if(slot.removeFirst()){
+            index.remove(obj);
+        }
+        return true;
+    }
+    // removes the item at exactly this slot, not the first occurrence of it
+    private void removeAt(int i){
+        ReferenceItem item=mSlots[i];
+        removeSlot(i);
+        Map<ReferenceItem, Slot> index=mIndex;
+        if(index==null){
+            return;
+        }
+        Slot slot=index.get(item);
+        if(slot!=null && slot.removePosition(i)){
+            index.remove(item);
+        }
+    }
+    @Override
+    public boolean removeAll(Collection<?> collection){
+        boolean result=false;
+        for(Object obj:collection){
+            while (remove(obj)){
+                result=true;
+            }
+        }
+        return result;
+    }
+    @Override
+    public void clear(){
+        mSlots=EMPTY;
+        mEnd=0;
+        mSize=0;
+        mIndex=null;
+        modCount++;
+    }
+    @Override
+    public int indexOf(Object obj){
+        if(obj==null || mSize==0){
+            return -1;
+        }
+        Map<ReferenceItem, Slot> index=mIndex;
+        int slot;
+        if(index!=null){
+            Slot exist=index.get(obj);
+            slot=exist==null?-1:exist.first();
+        }else {
+            slot=findSlot(obj, 0);
+        }
+        if(slot<0 || mEnd==mSize){
+            return slot;
+        }
+        ReferenceItem[] slots=mSlots;
+        int result=0;
+        for(int i=0;i<slot;i++){
+            if(slots[i]!=null){
+                result++;
+            }
+        }
+        return result;
+    }
+    @Override
+    public Object[] toArray(){
+        Object[] results=new Object[mSize];
+        ReferenceItem[] slots=mSlots;
+        int end=mEnd;
+        int j=0;
+        for(int i=0;i<end;i++){
+            ReferenceItem item=slots[i];
+            if(item!=null){
+                results[j]=item;
+                j++;
+            }
+        }
+        return results;
+    }
+    @Override
+    public Iterator<ReferenceItem> iterator(){
+        return new Itr();
+    }
+    private int findSlot(Object obj, int start){
+        ReferenceItem[] slots=mSlots;
+        int end=mEnd;
+        for(int i=start;i<end;i++){
+            ReferenceItem item=slots[i];
+            if(item!=null && obj.equals(item)){
+                return i;
+            }
+        }
+        return -1;
+    }
+    private void removeSlot(int i){
+        mSlots[i]=null;
+        mSize--;
+        modCount++;
+        if(i==mEnd-1){
+            mEnd=i;
+        }
+        if(mSize==0){
+            mEnd=0;
+        }
+    }
+    private void compact(){
+        int end=mEnd;
+        if(end==mSize){
+            return;
+        }
+        ReferenceItem[] slots=mSlots;
+        int j=0;
+        for(int i=0;i<end;i++){
+            ReferenceItem item=slots[i];
+            if(item!=null){
+                slots[j]=item;
+                j++;
+            }
+        }
+        for(int i=j;i<end;i++){
+            slots[i]=null;
+        }
+        mEnd=j;
+        if(mIndex!=null){
+            buildIndex();
+        }
+    }
+    private void buildIndex(){
+        Map<ReferenceItem, Slot> index=new HashMap<>();
+        ReferenceItem[] slots=mSlots;
+        int end=mEnd;
+        for(int i=0;i<end;i++){
+            ReferenceItem item=slots[i];
+            if(item!=null){
+                addToIndex(index, item, i);
+            }
+        }
+        mIndex=index;
+    }
+    private static void addToIndex(Map<ReferenceItem, Slot> index, ReferenceItem item, int position){
+        Slot exist=index.get(item);
+        if(exist==null){
+            index.put(item, new Slot(position));
+        }else {
+            exist.add(position);
+        }
+    }
+    private void ensureSpace(){
+        ReferenceItem[] slots=mSlots;
+        if(mEnd<slots.length){
+            return;
+        }
+        if(mSize<(slots.length>>1)){
+            compact();
+            return;
+        }
+        int grow=slots.length+(slots.length>>1);
+        if(grow<2){
+            grow=2;
+        }
+        mSlots=Arrays.copyOf(slots, grow);
+    }
+
+    private class Itr implements Iterator<ReferenceItem> {
+        private int mCursor;
+        private int mLast=-1;
+        private int mExpectedModCount=modCount;
+        @Override
+        public boolean hasNext(){
+            ReferenceItem[] slots=mSlots;
+            int end=mEnd;
+            int i=mCursor;
+            while (i<end && slots[i]==null){
+                i++;
+            }
+            mCursor=i;
+            return i<end;
+        }
+        @Override
+        public ReferenceItem next(){
+            checkModification();
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            mLast=mCursor;
+            mCursor++;
+            return mSlots[mLast];
+        }
+        @Override
+        public void remove(){
+            if(mLast<0){
+                throw new IllegalStateException();
+            }
+            checkModification();
+            removeAt(mLast);
+            mLast=-1;
+            mExpectedModCount=modCount;
+        }
+        private void checkModification(){
+            if(modCount!=mExpectedModCount){
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+    // ascending slots of an item, positions are only appended since slots are appended
+    private static class Slot{
+        private int[] mPositions;
+        private int mCount;
+        Slot(int position){
+            this.mPositions=new int[]{position};
+            this.mCount=1;
+        }
+        int first(){
+            return mPositions[0];
+        }
+        void add(int position){
+            int[] positions=mPositions;
+            if(mCount==positions.length){
+                positions=Arrays.copyOf(positions, mCount<<1);
+                mPositions=positions;
+            }
+            positions[mCount]=position;
+            mCount++;
+        }
+        // returns true if no position is left
+        boolean removeFirst(){
+            return removeIndex(0);
+        }
+        boolean removePosition(int position){
+            int[] positions=mPositions;
+            int count=mCount;
+            for(int i=0;i<count;i++){
+                if(positions[i]==position){
+                    return removeIndex(i);
+                }
+            }
+            return count==0;
+        }
+        private boolean removeIndex(int i){
+            int count=mCount-1;
+            if(i<count){
+                System.arraycopy(mPositions, i+1, mPositions, i, count-i);
+            }
+            mCount=count;
+            return count==0;
+        }
+    }
+
+    private static final int INDEX_THRESHOLD=8;
+    private static final ReferenceItem[] EMPTY=new ReferenceItem[0];
+}
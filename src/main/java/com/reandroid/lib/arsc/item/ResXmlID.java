@@ -21,15 +21,14 @@ import com.reandroid.lib.arsc.pool.ResXmlStringPool;
 import com.reandroid.lib.json.JSONConvert;
 import com.reandroid.lib.json.JSONObject;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 public class ResXmlID extends IntegerItem {
-    private final List<ReferenceItem> mReferencedList;
+    private final ReferenceList mReferencedList;
     public ResXmlID(int resId){
         super(resId);
-        this.mReferencedList=new ArrayList<>();
+        this.mReferencedList=new ReferenceList();
     }
     public ResXmlID(){
         this(0);
@@ -60,8 +59,9 @@ public class ResXmlID extends IntegerItem {
         }
     }
     private void reUpdateReferences(int newIndex){
-        for(ReferenceItem ref:mReferencedList){
-            ref.set(newIndex);
+        Object[] referenceItems=mReferencedList.toArray();
+        for(Object ref:referenceItems){
+            ((ReferenceItem)ref).set(newIndex);
         }
     }
     @Override
@@ -15,6 +15,10 @@
   */
 package com.reandroid.lib.arsc.item;
 
+import com.reandroid.lib.arsc.io.BlockReader;
+
+import java.io.IOException;
+
 public class ShortItem extends BlockItem {
     private short mCache;
 
@@ -41,13 +45,20 @@ public class ShortItem extends BlockItem {
         return 0xffff & get();
     }
     @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        if(reader.isZeroCopy()){
+            super.onReadBytes(reader);
+            return;
+        }
+        set(reader.readShortLE());
+    }
+    @Override
     protected void onBytesChanged() {
         // To save cpu usage, better to calculate once only when bytes changed
         mCache=readShortBytes();
     }
     private short readShortBytes(){
-        byte[] bts = getBytesInternal();
-        return (short) (bts[0] & 0xff | (bts[1] & 0xff) << 8);
+        return getShortAt(0);
     }
     @Override
     public String toString(){
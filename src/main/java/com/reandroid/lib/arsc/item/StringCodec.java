@@ -0,0 +1,284 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.item;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes/decodes string pool entries (length header + data + null terminator) directly
+ * to/from byte arrays, without charset encoders, intermediate buffers or header objects.
+ * Output is the same as {@link String#getBytes} : unpaired surrogates are
+ * written as '?' on utf8 and as U+FFFD on utf16.
+ * */
+final class StringCodec {
+
+    static byte[] encodeUtf8(String str){
+        if(str==null){
+            return new byte[3];
+        }
+        int chars=str.length();
+        int length=utf8Length(str);
+        int header=(length<0x80)?2:4;
+        byte[] bts=new byte[header+length+1];
+        if(header==2){
+            bts[0]=(byte) chars;
+            bts[1]=(byte) length;
+        }else {
+            bts[0]=(byte) ((chars >> 8) | 0x80);
+            bts[1]=(byte) chars;
+            bts[2]=(byte) ((length >> 8) | 0x80);
+            bts[3]=(byte) length;
+        }
+        writeUtf8(str, bts, header);
+        return bts;
+    }
+    static byte[] encodeUtf16(String str){
+        if(str==null){
+            return null;
+        }
+        int length=str.length();
+        int header=(length<0x8000)?2:4;
+        byte[] bts=new byte[header+length*2+2];
+        if(header==2){
+            bts[0]=(byte) length;
+            bts[1]=(byte) (length >> 8);
+        }else {
+            int high=(length >> 16) | 0x8000;
+            bts[0]=(byte) high;
+            bts[1]=(byte) (high >> 8);
+            bts[2]=(byte) length;
+            bts[3]=(byte) (length >> 8);
+        }
+        int position=header;
+        for(int i=0;i<length;i++){
+            char ch=str.charAt(i);
+            if(Character.isSurrogate(ch) && !isSurrogatePair(str, i)){
+                ch=REPLACEMENT_UTF16;
+            }else if(Character.isHighSurrogate(ch)){
+                bts[position]=(byte) ch;
+                bts[position+1]=(byte) (ch >> 8);
+                position+=2;
+                i++;
+                ch=str.charAt(i);
+            }
+            bts[position]=(byte) ch;
+            bts[position+1]=(byte) (ch >> 8);
+            position+=2;
+        }
+        return bts;
+    }
+    static int utf8Length(String str){
+        int length=str.length();
+        int result=length;
+        for(int i=0;i<length;i++){
+            char ch=str.charAt(i);
+            if(ch<0x80){
+                continue;
+            }
+            if(ch<0x800){
+                result+=1;
+            }else if(!Character.isSurrogate(ch)){
+                result+=2;
+            }else if(isSurrogatePair(str, i)){
+                // 2 chars to 4 bytes
+                result+=2;
+                i++;
+            }
+        }
+        return result;
+    }
+    private static void writeUtf8(String str, byte[] bts, int position){
+        int length=str.length();
+        int i=0;
+        while (i<length){
+            char ch=str.charAt(i);
+            if(ch>=0x80){
+                break;
+            }
+            bts[position]=(byte) ch;
+            position++;
+            i++;
+        }
+        for(;i<length;i++){
+            char ch=str.charAt(i);
+            if(ch<0x80){
+                bts[position]=(byte) ch;
+                position++;
+            }else if(ch<0x800){
+                bts[position]=(byte) (0xc0 | (ch >> 6));
+                bts[position+1]=(byte) (0x80 | (ch & 0x3f));
+                position+=2;
+            }else if(!Character.isSurrogate(ch)){
+                bts[position]=(byte) (0xe0 | (ch >> 12));
+                bts[position+1]=(byte) (0x80 | ((ch >> 6) & 0x3f));
+                bts[position+2]=(byte) (0x80 | (ch & 0x3f));
+                position+=3;
+            }else if(isSurrogatePair(str, i)){
+                int code=Character.toCodePoint(ch, str.charAt(i+1));
+                bts[position]=(byte) (0xf0 | (code >> 18));
+                bts[position+1]=(byte) (0x80 | ((code >> 12) & 0x3f));
+                bts[position+2]=(byte) (0x80 | ((code >> 6) & 0x3f));
+                bts[position+3]=(byte) (0x80 | (code & 0x3f));
+                position+=4;
+                i++;
+            }else {
+                bts[position]=REPLACEMENT_UTF8;
+                position++;
+            }
+        }
+    }
+    private static boolean isSurrogatePair(String str, int i){
+        return Character.isHighSurrogate(str.charAt(i))
+                && i+1<str.length()
+                && Character.isLowSurrogate(str.charAt(i+1));
+    }
+    /**
+     * Decodes {@param length} bytes of utf8 data, returns null if malformed
+     * */
+    static String decodeUtf8(byte[] bts, int offset, int length){
+        int max=offset+length;
+        int i=offset;
+        while (i<max && bts[i]>=0){
+            i++;
+        }
+        if(i==max){
+            // all ascii, copied as it is
+            return new String(bts, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars=new char[length];
+        int count=0;
+        for(int j=offset;j<i;j++){
+            chars[count]=(char) bts[j];
+            count++;
+        }
+        while (i<max){
+            int b=bts[i] & 0xff;
+            if(b<0x80){
+                chars[count]=(char) b;
+                count++;
+                i++;
+                continue;
+            }
+            int extra;
+            int min;
+            if(b>=0xc2 && b<=0xdf){
+                extra=1;
+                min=0x80;
+            }else if(b>=0xe0 && b<=0xef){
+                extra=2;
+                min=0x800;
+            }else if(b>=0xf0 && b<=0xf4){
+                extra=3;
+                min=0x10000;
+            }else {
+                return null;
+            }
+            if(i+extra>=max){
+                return null;
+            }
+            int code=b & (0x3f >> extra);
+            for(int j=1;j<=extra;j++){
+                int c=bts[i+j] & 0xff;
+                if((c & 0xc0)!=0x80){
+                    return null;
+                }
+                code=(code << 6) | (c & 0x3f);
+            }
+            if(code<min || code>0x10ffff || (code>=0xd800 && code<=0xdfff)){
+                return null;
+            }
+            if(code>=0x10000){
+                chars[count]=Character.highSurrogate(code);
+                chars[count+1]=Character.lowSurrogate(code);
+                count+=2;
+            }else {
+                chars[count]=(char) code;
+                count++;
+            }
+            i+=extra+1;
+        }
+        return new String(chars, 0, count);
+    }
+    /**
+     * Decodes {@param length} bytes of utf16 (little endian) data, returns null if malformed
+     * */
+    static String decodeUtf16(byte[] bts, int offset, int length){
+        if((length & 1)!=0){
+            return null;
+        }
+        int count=length/2;
+        char[] chars=new char[count];
+        int position=offset;
+        for(int i=0;i<count;i++){
+            chars[i]=(char) ((bts[position] & 0xff) | (bts[position+1] & 0xff) << 8);
+            position+=2;
+        }
+        for(int i=0;i<count;i++){
+            char ch=chars[i];
+            if(!Character.isSurrogate(ch)){
+                continue;
+            }
+            if(!Character.isHighSurrogate(ch) || i+1==count
+                    || !Character.isLowSurrogate(chars[i+1])){
+                return null;
+            }
+            i++;
+        }
+        return new String(chars);
+    }
+    /**
+     * Returns start of data (upper 32 bits) and length of data in bytes (lower 32 bits)
+     * */
+    static long decodeUtf8Header(byte[] bts, int offset){
+        // skip length in chars
+        if((bts[offset] & 0x80)!=0){
+            offset+=2;
+        }else {
+            offset+=1;
+        }
+        int length=bts[offset];
+        offset+=1;
+        if((length & 0x80)!=0){
+            length=((length & 0x7f) << 8) | (bts[offset] & 0xff);
+            offset+=1;
+        }
+        return toHeader(offset, length);
+    }
+    /**
+     * Returns start of data (upper 32 bits) and length of data in bytes (lower 32 bits)
+     * */
+    static long decodeUtf16Header(byte[] bts, int offset){
+        int length=(bts[offset] & 0xff) | (bts[offset+1] & 0xff) << 8;
+        if((length & 0x8000)!=0){
+            int low=(bts[offset+2] & 0xff) | (bts[offset+3] & 0xff) << 8;
+            length=((length & 0x7fff) << 16) + low;
+            return toHeader(offset+4, length*2);
+        }
+        return toHeader(offset+2, length*2);
+    }
+    static int headerStart(long header){
+        return (int) (header >>> 32);
+    }
+    static int headerLength(long header){
+        return (int) header;
+    }
+    private static long toHeader(int start, int length){
+        return ((long) start << 32) | (length & 0xffffffffL);
+    }
+
+    private static final byte REPLACEMENT_UTF8='?';
+    private static final char REPLACEMENT_UTF16='\uFFFD';
+}
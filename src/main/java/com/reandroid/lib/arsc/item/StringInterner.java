@@ -0,0 +1,120 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.item;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded, lossy table of decoded strings shared by all string pools, see
+ * {@link StringItem#setStringInterner(StringInterner)}. A hash maps to a pair of slots holding
+ * the latest strings, thus memory is bounded by capacity and no lock is taken; racing writes only
+ * lose an entry since strings are immutable. Strings longer than max length are not interned.
+ * */
+public class StringInterner {
+    private final String[] mSlots;
+    private final int mMask;
+    private final int mMaxLength;
+    public StringInterner(int capacity, int maxLength){
+        if(capacity<2){
+            capacity=2;
+        }
+        capacity=Integer.highestOneBit(capacity);
+        this.mSlots=new String[capacity];
+        this.mMask=capacity-1;
+        this.mMaxLength=maxLength;
+    }
+    public StringInterner(){
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+    public String intern(String str){
+        if(str==null || str.length()>mMaxLength){
+            return str;
+        }
+        int hash=str.hashCode();
+        int slot=mix(hash) & mMask;
+        String[] slots=mSlots;
+        String exist=slots[slot];
+        if(exist!=null && exist.hashCode()==hash && exist.equals(str)){
+            return exist;
+        }
+        exist=slots[slot ^ 1];
+        if(exist!=null && exist.hashCode()==hash && exist.equals(str)){
+            return exist;
+        }
+        put(slot, str);
+        return str;
+    }
+    /**
+     * Returns shared string of {@param length} ascii bytes without creating new string
+     * if it is already interned, returns null if any of the bytes is not ascii or too long
+     * */
+    String internAscii(byte[] bts, int offset, int length){
+        if(length>mMaxLength){
+            return null;
+        }
+        int max=offset+length;
+        int hash=0;
+        for(int i=offset;i<max;i++){
+            byte b=bts[i];
+            if(b<0){
+                return null;
+            }
+            hash=31*hash+b;
+        }
+        int slot=mix(hash) & mMask;
+        String[] slots=mSlots;
+        String exist=slots[slot];
+        if(exist!=null && exist.hashCode()==hash && isEqual(exist, bts, offset, length)){
+            return exist;
+        }
+        exist=slots[slot ^ 1];
+        if(exist!=null && exist.hashCode()==hash && isEqual(exist, bts, offset, length)){
+            return exist;
+        }
+        String str=new String(bts, offset, length, StandardCharsets.ISO_8859_1);
+        put(slot, str);
+        return str;
+    }
+    // two slots per hash, the pair slot is used if it is empty
+    private void put(int slot, String str){
+        String[] slots=mSlots;
+        if(slots[slot]!=null && slots[slot ^ 1]==null){
+            slot=slot ^ 1;
+        }
+        slots[slot]=str;
+    }
+    public void clear(){
+        Arrays.fill(mSlots, null);
+    }
+    private static boolean isEqual(String str, byte[] bts, int offset, int length){
+        if(str.length()!=length){
+            return false;
+        }
+        for(int i=0;i<length;i++){
+            if(str.charAt(i)!=bts[offset+i]){
+                return false;
+            }
+        }
+        return true;
+    }
+    private static int mix(int hash){
+        return hash ^ (hash>>>16);
+    }
+
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    public static final int DEFAULT_MAX_LENGTH = 128;
+}
@@ -23,45 +23,72 @@ import com.reandroid.lib.json.JSONObject;
 
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.CharsetDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
     private String mCache;
+    private boolean mDecoded;
     private boolean mUtf8;
-    private final List<ReferenceItem> mReferencedList;
+    // memoized html, valid for the index and styles mod count it was rendered at
+    private String mHtml;
+    private int mHtmlIndex;
+    private int mHtmlModCount;
+    // owning pool, valid while parent is the same
+    private BaseStringPool<?> mStringPool;
+    private Block mStringPoolParent;
+    // created on first reference, most of strings in big pools are not referenced
+    private ReferenceList mReferencedList;
     public StringItem(boolean utf8) {
         super(0);
         this.mUtf8=utf8;
-        this.mReferencedList=new ArrayList<>();
     }
     public boolean removeReference(ReferenceItem ref){
-        return mReferencedList.remove(ref);
+        ReferenceList referencedList=mReferencedList;
+        if(referencedList==null){
+            return false;
+        }
+        return referencedList.remove(ref);
     }
     public boolean removeAllReference(Collection<ReferenceItem> referenceItems){
-        return mReferencedList.removeAll(referenceItems);
+        ReferenceList referencedList=mReferencedList;
+        if(referencedList==null){
+            return false;
+        }
+        return referencedList.removeAll(referenceItems);
     }
     public void removeAllReference(){
-        mReferencedList.clear();
+        mReferencedList=null;
     }
+    /**
+     * Returns unmodifiable empty list if there is no reference
+     * */
     public List<ReferenceItem> getReferencedList(){
-        return mReferencedList;
+        ReferenceList referencedList=mReferencedList;
+        if(referencedList==null){
+            return Collections.emptyList();
+        }
+        return referencedList;
     }
     public void addReference(ReferenceItem ref){
         if(ref!=null){
-            mReferencedList.add(ref);
+            obtainReferencedList().add(ref);
         }
     }
     public void addReferenceIfAbsent(ReferenceItem ref){
-        if(ref!=null && !mReferencedList.contains(ref)){
-            mReferencedList.add(ref);
+        if(ref!=null && !getReferencedList().contains(ref)){
+            obtainReferencedList().add(ref);
+        }
+    }
+    private ReferenceList obtainReferencedList(){
+        ReferenceList referencedList=mReferencedList;
+        if(referencedList==null){
+            referencedList=new ReferenceList();
+            mReferencedList=referencedList;
         }
+        return referencedList;
     }
     public void addReference(Collection<ReferenceItem> refList){
         if(refList==null){
@@ -72,9 +99,14 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
         }
     }
     private void reUpdateReferences(int newIndex){
-        List<ReferenceItem> referenceItems=new ArrayList<>(mReferencedList);
-        for(ReferenceItem ref:referenceItems){
-            ref.set(newIndex);
+        ReferenceList referencedList=mReferencedList;
+        if(referencedList==null){
+            return;
+        }
+        // snapshot, setting index could add/remove references of this item
+        Object[] referenceItems=referencedList.toArray();
+        for(Object ref:referenceItems){
+            ((ReferenceItem)ref).set(newIndex);
         }
     }
     @Override
@@ -86,15 +118,76 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
         if(str==null){
             return null;
         }
-        StyleItem styleItem=getStyle();
-        if(styleItem==null){
+        BaseStringPool<?> stringPool=getStringPool();
+        if(stringPool==null){
+            return str;
+        }
+        int index=getIndex();
+        if(index<0 || index>=stringPool.countStyles()){
             return str;
         }
-        return styleItem.applyHtml(str);
+        int modCount=stringPool.getStylesModCount();
+        String html=mHtml;
+        if(html!=null && mHtmlIndex==index && mHtmlModCount==modCount){
+            return html;
+        }
+        StyleItem styleItem=stringPool.getStyle(index);
+        if(styleItem==null){
+            html=str;
+        }else {
+            html=styleItem.applyHtml(str);
+        }
+        mHtml=html;
+        mHtmlIndex=index;
+        mHtmlModCount=modCount;
+        return html;
     }
     public String get(){
+        if(!mDecoded){
+            mCache=decodeString();
+            mDecoded=true;
+        }
         return mCache;
     }
+    /**
+     * Drops decoded string to save memory, it is decoded again on next get()
+     * */
+    public void releaseCache(){
+        mCache=null;
+        mDecoded=false;
+        mHtml=null;
+    }
+    /**
+     * Returns key of encoded bytes without decoding, strings with invalid or
+     * non-shortest encoding are keyed by their decoded value instead
+     * */
+    public StringKey getStringKey(){
+        byte[] bts=getBytesBuffer();
+        int offset=getBytesOffset();
+        int length=getBytesLength();
+        if(isNullBytes(bts, offset, length)){
+            if(bts==null||length==0){
+                return null;
+            }
+            return new StringKey(bts, offset, 0);
+        }
+        long header=decodeHeader(bts, offset, isUtf8());
+        int start=StringCodec.headerStart(header);
+        int len=StringCodec.headerLength(header);
+        if(start+len>offset+length){
+            return StringKey.create(get(), isUtf8());
+        }
+        boolean valid;
+        if(isUtf8()){
+            valid=isValidUtf8(bts, start, len);
+        }else {
+            valid=isValidUtf16(bts, start, len);
+        }
+        if(!valid){
+            return StringKey.create(get(), isUtf8());
+        }
+        return new StringKey(bts, start, len);
+    }
     public void set(String str){
         String old=get();
         if(str==null){
@@ -105,23 +198,65 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
             return;
         }
         byte[] bts=encodeString(str);
+        BaseStringPool<?> stringPool=getStringPool();
+        if(stringPool!=null){
+            stringPool.onStringChanging(this);
+        }
         setBytesInternal(bts);
+        if(stringPool!=null){
+            stringPool.onStringChanged(this);
+        }
     }
 
     public boolean isUtf8(){
         return mUtf8;
     }
+    /**
+     * Changes encoding, existing bytes are re-encoded
+     * */
     public void setUtf8(boolean utf8){
         if(utf8==mUtf8){
             return;
         }
+        if(getBytesLength()==0){
+            mUtf8=utf8;
+            onBytesChanged();
+            return;
+        }
+        String str=get();
         mUtf8=utf8;
-        onBytesChanged();
+        setBytesInternal(encodeString(str));
+    }
+    /**
+     * Returns size of bytes if this string is encoded as utf8 or utf16,
+     * -1 if it is too long to be encoded as utf8
+     * */
+    public int countEncodedBytes(boolean utf8){
+        String str=get();
+        if(utf8){
+            if(str==null){
+                return 3;
+            }
+            int length=StringCodec.utf8Length(str);
+            if(length>0x7fff || str.length()>0x7fff){
+                return -1;
+            }
+            int header=(length<0x80)?2:4;
+            return header+length+1;
+        }
+        if(str==null){
+            return 0;
+        }
+        int length=str.length();
+        int header=(length<0x8000)?2:4;
+        return header+length*2+2;
     }
     @Override
     protected void onBytesChanged() {
-        // To save cpu/memory usage, better to decode once only when bytes changed
-        mCache=decodeString();
+        // decoded lazily on first get()
+        mCache=null;
+        mDecoded=false;
+        mHtml=null;
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
@@ -129,63 +264,84 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
             return;
         }
         int len=calculateReadLength(reader);
-        setBytesLength(len, false);
-        byte[] bts=getBytesInternal();
-        reader.readFully(bts);
+        readBytesInternal(reader, len);
         onBytesChanged();
     }
     int calculateReadLength(BlockReader reader) throws IOException {
         if(reader.available()<4){
             return reader.available();
         }
-        byte[] bts=new byte[4];
-        reader.readFully(bts);
-        reader.offset(-4);
-        int[] len;
-        if(isUtf8()){
-            len=decodeUtf8StringByteLength(bts);
+        byte[] bts=reader.getBuffer();
+        int offset;
+        if(bts!=null){
+            offset=reader.getStartPosition()+reader.getPosition();
         }else {
-            len=decodeUtf16StringByteLength(bts);
+            bts=new byte[4];
+            reader.readFully(bts);
+            reader.offset(-4);
+            offset=0;
         }
+        long header=decodeHeader(bts, offset, isUtf8());
         int add=isUtf8()?1:2;
-        return len[0]+len[1]+add;
+        return StringCodec.headerStart(header)-offset+StringCodec.headerLength(header)+add;
+    }
+    private static long decodeHeader(byte[] bts, int offset, boolean utf8){
+        if(utf8){
+            return StringCodec.decodeUtf8Header(bts, offset);
+        }
+        return StringCodec.decodeUtf16Header(bts, offset);
     }
     String decodeString(){
-        return decodeString(getBytesInternal(), mUtf8);
+        return decodeString(getBytesBuffer(), getBytesOffset(), getBytesLength(), mUtf8);
     }
     byte[] encodeString(String str){
         if(mUtf8){
-            return encodeUtf8ToBytes(str);
+            return StringCodec.encodeUtf8(str);
         }else {
-            return encodeUtf16ToBytes(str);
+            return StringCodec.encodeUtf16(str);
         }
     }
-    private String decodeString(byte[] allStringBytes, boolean isUtf8) {
-        if(isNullBytes(allStringBytes)){
-            if(allStringBytes==null||allStringBytes.length==0){
+    private String decodeString(byte[] allStringBytes, int offset, int length, boolean isUtf8) {
+        if(isNullBytes(allStringBytes, offset, length)){
+            if(allStringBytes==null||length==0){
                 return null;
             }
             return "";
         }
-        int[] offLen;
+        long header=decodeHeader(allStringBytes, offset, isUtf8);
+        int start=StringCodec.headerStart(header);
+        int len=StringCodec.headerLength(header);
+        StringInterner interner=STRING_INTERNER;
+        String result;
         if(isUtf8){
-            offLen=decodeUtf8StringByteLength(allStringBytes);
+            if(interner!=null && start+len<=allStringBytes.length){
+                result=interner.internAscii(allStringBytes, start, len);
+                if(result!=null){
+                    return result;
+                }
+            }
+            result=StringCodec.decodeUtf8(allStringBytes, start, len);
         }else {
-            offLen=decodeUtf16StringByteLength(allStringBytes);
+            result=StringCodec.decodeUtf16(allStringBytes, start, len);
         }
-        CharsetDecoder charsetDecoder;
-        if(isUtf8){
-            charsetDecoder=UTF8_DECODER;
-        }else {
-            charsetDecoder=UTF16LE_DECODER;
+        if(result==null){
+            // malformed
+            result=new String(allStringBytes, start, len, StandardCharsets.UTF_16LE);
         }
-        try {
-            ByteBuffer buf=ByteBuffer.wrap(allStringBytes, offLen[0], offLen[1]);
-            CharBuffer charBuffer=charsetDecoder.decode(buf);
-            return charBuffer.toString();
-        } catch (CharacterCodingException ex) {
-            return new String(allStringBytes, offLen[0], offLen[1], StandardCharsets.UTF_16LE);
+        if(interner!=null){
+            result=interner.intern(result);
         }
+        return result;
+    }
+    /**
+     * Decoded strings of all pools are shared through {@param interner}, e.g. when
+     * multiple tables are kept in memory. Null (default) disables interning.
+     * */
+    public static void setStringInterner(StringInterner interner){
+        STRING_INTERNER=interner;
+    }
+    public static StringInterner getStringInterner(){
+        return STRING_INTERNER;
     }
     public boolean hasStyle(){
         StyleItem styleItem=getStyle();
@@ -204,13 +360,21 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
     }
     private BaseStringPool<?> getStringPool(){
         Block parent=getParent();
-        while (parent!=null){
-            if(parent instanceof BaseStringPool){
-                return (BaseStringPool<?>)parent;
+        if(parent==mStringPoolParent && parent!=null){
+            return mStringPool;
+        }
+        BaseStringPool<?> stringPool=null;
+        Block block=parent;
+        while (block!=null){
+            if(block instanceof BaseStringPool){
+                stringPool=(BaseStringPool<?>)block;
+                break;
             }
-            parent=parent.getParent();
+            block=block.getParent();
         }
-        return null;
+        mStringPool=stringPool;
+        mStringPoolParent=parent;
+        return stringPool;
     }
     @Override
     public JSONObject toJson() {
@@ -243,48 +407,83 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
         return str;
     }
 
-    private static int[] decodeUtf8StringByteLength(byte[] lengthBytes) {
-        int offset=0;
-        int val = lengthBytes[offset];
-        int length;
-        if ((val & 0x80) != 0) {
-            offset += 2;
-        } else {
-            offset += 1;
-        }
-        val = lengthBytes[offset];
-        offset += 1;
-        if ((val & 0x80) != 0) {
-            int low = (lengthBytes[offset] & 0xFF);
-            length = val & 0x7F;
-            length = length << 8;
-            length = length + low;
-            offset += 1;
-        } else {
-            length = val;
-        }
-        return new int[] { offset, length};
-    }
-    private static int[] decodeUtf16StringByteLength(byte[] lengthBytes) {
-        int val = ((lengthBytes[1] & 0xFF) << 8 | lengthBytes[0] & 0xFF);
-        if ((val & 0x8000) != 0) {
-            int high = (lengthBytes[3] & 0xFF) << 8;
-            int low = (lengthBytes[2] & 0xFF);
-            int len_value =  ((val & 0x7FFF) << 16) + (high + low);
-            return new int[] {4, len_value * 2};
-
+    private static boolean isValidUtf8(byte[] bts, int offset, int length){
+        int i=offset;
+        int max=offset+length;
+        while (i<max){
+            int b=bts[i] & 0xff;
+            if(b<0x80){
+                i++;
+                continue;
+            }
+            int count;
+            int min;
+            if(b>=0xc2 && b<=0xdf){
+                count=1;
+                min=0x80;
+            }else if(b>=0xe0 && b<=0xef){
+                count=2;
+                min=0x800;
+            }else if(b>=0xf0 && b<=0xf4){
+                count=3;
+                min=0x10000;
+            }else {
+                return false;
+            }
+            if(i+count>=max){
+                return false;
+            }
+            int code=b & (0x3f >> count);
+            for(int j=1;j<=count;j++){
+                int c=bts[i+j] & 0xff;
+                if((c & 0xc0)!=0x80){
+                    return false;
+                }
+                code=(code << 6) | (c & 0x3f);
+            }
+            if(code<min || code>0x10ffff || (code>=0xd800 && code<=0xdfff)){
+                return false;
+            }
+            i+=count+1;
+        }
+        return true;
+    }
+    private static boolean isValidUtf16(byte[] bts, int offset, int length){
+        if((length & 1)!=0){
+            return false;
+        }
+        int max=offset+length;
+        for(int i=offset;i<max;i+=2){
+            int ch=(bts[i] & 0xff) | (bts[i+1] & 0xff) << 8;
+            if(ch<0xd800 || ch>0xdfff){
+                continue;
+            }
+            if(ch>0xdbff || i+3>=max){
+                return false;
+            }
+            int low=(bts[i+2] & 0xff) | (bts[i+3] & 0xff) << 8;
+            if(low<0xdc00 || low>0xdfff){
+                return false;
+            }
+            i+=2;
         }
-        return new int[] {2, val * 2};
+        return true;
     }
     static boolean isNullBytes(byte[] bts){
         if(bts==null){
             return true;
         }
-        int max=bts.length;
-        if(max<2){
+        return isNullBytes(bts, 0, bts.length);
+    }
+    static boolean isNullBytes(byte[] bts, int offset, int length){
+        if(bts==null){
+            return true;
+        }
+        if(length<2){
             return true;
         }
-        for(int i=2; i<max;i++){
+        int max=offset+length;
+        for(int i=offset+2; i<max;i++){
             if(bts[i] != 0){
                 return false;
             }
@@ -293,93 +492,11 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject> {
     }
 
 
-    private static byte[] encodeUtf8ToBytes(String str){
-        byte[] bts=new byte[0];
-        byte[] lenBytes=new byte[2];
-        if(str!=null){
-            bts=str.getBytes(StandardCharsets.UTF_8);
-            int strLen=bts.length;
-            if((strLen & 0xff80)!=0){
-                lenBytes=new byte[4];
-                int l2=strLen&0xff;
-                int l1=(strLen-l2)>>8;
-                lenBytes[3]=(byte) (l2);
-                lenBytes[2]=(byte) (l1|0x80);
-                strLen=str.length();
-                l2=strLen&0xff;
-                l1=(strLen-l2)>>8;
-                lenBytes[1]=(byte) (l2);
-                lenBytes[0]=(byte) (l1|0x80);
-            }else{
-                lenBytes=new ShortItem((short) strLen).getBytesInternal();
-                lenBytes[1]=lenBytes[0];
-                lenBytes[0]=(byte)str.length();
-            }
-        }else {
-            bts=new byte[0];
-        }
-        return addBytes(lenBytes, bts, new byte[1]);
-    }
-    private static byte[] encodeUtf16ToBytes(String str){
-        if(str==null){
-            return null;
-        }
-        byte[] lenBytes;
-        byte[] bts=getUtf16Bytes(str);
-        int strLen=bts.length;
-        strLen=strLen/2;
-        if((strLen & 0xffff8000)!=0){
-            lenBytes=new byte[4];
-            int low=strLen&0xff;
-            int high=(strLen-low)&0xff00;
-            int rem=strLen-low-high;
-            lenBytes[3]=(byte) (high>>8);
-            lenBytes[2]=(byte) (low);
-            low=rem&0xff;
-            high=(rem&0xff00)>>8;
-            lenBytes[1]=(byte) (high|0x80);
-            lenBytes[0]=(byte) (low);
-        }else{
-            lenBytes=new ShortItem((short) strLen).getBytesInternal();
-        }
-        return addBytes(lenBytes, bts, new byte[2]);
-    }
     static byte[] getUtf16Bytes(String str){
         return str.getBytes(StandardCharsets.UTF_16LE);
     }
 
-    private static byte[] addBytes(byte[] bts1, byte[] bts2, byte[] bts3){
-        if(bts1==null && bts2==null && bts3==null){
-            return null;
-        }
-        int len=0;
-        if(bts1!=null){
-            len=bts1.length;
-        }
-        if(bts2!=null){
-            len+=bts2.length;
-        }
-        if(bts3!=null){
-            len+=bts3.length;
-        }
-        byte[] result=new byte[len];
-        int start=0;
-        if(bts1!=null){
-            start=bts1.length;
-            System.arraycopy(bts1, 0, result, 0, start);
-        }
-        if(bts2!=null){
-            System.arraycopy(bts2, 0, result, start, bts2.length);
-            start+=bts2.length;
-        }
-        if(bts3!=null){
-            System.arraycopy(bts3, 0, result, start, bts3.length);
-        }
-        return result;
-    }
-
-    private final CharsetDecoder UTF16LE_DECODER = StandardCharsets.UTF_16LE.newDecoder();
-    private final CharsetDecoder UTF8_DECODER = StandardCharsets.UTF_8.newDecoder();
+    private static volatile StringInterner STRING_INTERNER;
 
     public static final String NAME_string="string";
     public static final String NAME_style="style";
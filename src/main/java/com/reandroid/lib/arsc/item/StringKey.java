@@ -0,0 +1,84 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.item;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Identifies a string by its encoded bytes (without length prefix and null terminator),
+ * thus string pools can be indexed without decoding each string.
+ * Two keys of the same encoding are equal only if their decoded strings are equal.
+ * */
+public final class StringKey {
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+    private final int hashCode;
+    StringKey(byte[] bytes, int offset, int length){
+        this.bytes=bytes;
+        this.offset=offset;
+        this.length=length;
+        int hash=1;
+        int max=offset+length;
+        for(int i=offset;i<max;i++){
+            hash=31*hash+bytes[i];
+        }
+        this.hashCode=hash;
+    }
+    @Override
+    public int hashCode(){
+        return hashCode;
+    }
+    @Override
+    public boolean equals(Object obj){
+        if(obj==this){
+            return true;
+        }
+        if(!(obj instanceof StringKey)){
+            return false;
+        }
+        StringKey other=(StringKey) obj;
+        if(hashCode!=other.hashCode || length!=other.length){
+            return false;
+        }
+        byte[] bts1=bytes;
+        byte[] bts2=other.bytes;
+        int off1=offset;
+        int off2=other.offset;
+        for(int i=0;i<length;i++){
+            if(bts1[off1+i]!=bts2[off2+i]){
+                return false;
+            }
+        }
+        return true;
+    }
+    @Override
+    public String toString(){
+        return "length="+length+", hash="+hashCode;
+    }
+    public static StringKey create(String str, boolean utf8){
+        if(str==null){
+            return null;
+        }
+        byte[] bts;
+        if(utf8){
+            bts=str.getBytes(StandardCharsets.UTF_8);
+        }else {
+            bts=str.getBytes(StandardCharsets.UTF_16LE);
+        }
+        return new StringKey(bts, 0, bts.length);
+    }
+}
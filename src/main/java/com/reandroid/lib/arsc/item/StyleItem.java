@@ -46,6 +46,7 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
     final void setStringRef(int index, int val){
         int i=index * INTEGERS_COUNT + INDEX_STRING_REF;
         super.put(i, val);
+        onStyleChanged();
     }
     final Integer getFirstChar(int index){
         int i=index * INTEGERS_COUNT + INDEX_CHAR_FIRST;
@@ -54,6 +55,7 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
     final void setFirstChar(int index, int val){
         int i=index * INTEGERS_COUNT + INDEX_CHAR_FIRST;
         super.put(i, val);
+        onStyleChanged();
     }
     final Integer getLastChar(int index){
         int i=index * INTEGERS_COUNT + INDEX_CHAR_LAST;
@@ -62,6 +64,7 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
     final void setLastChar(int index, int val){
         int i=index * INTEGERS_COUNT + INDEX_CHAR_LAST;
         super.put(i, val);
+        onStyleChanged();
     }
     public void addStylePiece(String tag, int firstChar, int lastChar){
         BaseStringPool<?> stringPool = getStringPool();
@@ -81,6 +84,7 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
         super.put(i+ INDEX_STRING_REF, refString);
         super.put(i+ INDEX_CHAR_FIRST, firstChar);
         super.put(i+ INDEX_CHAR_LAST, lastChar);
+        onStyleChanged();
     }
     final int[] getStylePiece(int index){
         if(index<0||index>= getStylePieceCount()){
@@ -101,6 +105,7 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
         super.put(i + INDEX_STRING_REF, three[INDEX_STRING_REF]);
         super.put(i + INDEX_CHAR_FIRST, three[INDEX_CHAR_FIRST]);
         super.put(i + INDEX_CHAR_LAST, three[INDEX_CHAR_LAST]);
+        onStyleChanged();
     }
     final void ensureStylePieceCount(int count){
         if(count<0){
@@ -117,6 +122,30 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
         }
         return sz/ INTEGERS_COUNT;
     }
+    /**
+     * Returns string indexes of tags
+     * */
+    public int[] getStringReferences(){
+        int count=getStylePieceCount();
+        int[] results=new int[count];
+        for(int i=0;i<count;i++){
+            Integer ref=getStringRef(i);
+            results[i]=ref==null?-1:ref;
+        }
+        return results;
+    }
+    /**
+     * Replaces string indexes of tags, each index i by indexMap[i]
+     * */
+    public void remapStringReferences(int[] indexMap){
+        int count=getStylePieceCount();
+        for(int i=0;i<count;i++){
+            Integer ref=getStringRef(i);
+            if(ref!=null && ref>=0 && ref<indexMap.length){
+                setStringRef(i, indexMap[ref]);
+            }
+        }
+    }
     final void setStylePieceCount(int count){
         if(count<0){
             count=0;
@@ -209,31 +238,53 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
         if(str==null){
             return null;
         }
-        List<StyleSpanInfo> spanInfoList = getSpanInfoList();
-        if(isEmpty(spanInfoList)){
+        int count=getStylePieceCount();
+        // spans are read once to primitives, null spans (ref<=0) are skipped
+        int[] firsts=new int[count];
+        int[] lasts=new int[count];
+        StyleSpanInfo[] spans=new StyleSpanInfo[count];
+        int size=0;
+        for(int i=0;i<count;i++){
+            int ref=getStringRef(i);
+            if(ref<=0){
+                continue;
+            }
+            int first=getFirstChar(i);
+            int last=getLastChar(i);
+            firsts[size]=first;
+            lasts[size]=last;
+            spans[size]=new StyleSpanInfo(getStringFromPool(ref), first, last);
+            size++;
+        }
+        if(size==0){
             return str;
         }
-        StringBuilder builder=new StringBuilder();
-        char[] allChars=str.toCharArray();
-        int max=allChars.length;
+        String[] startTags=new String[size];
+        String[] endTags=new String[size];
+        StringBuilder builder=new StringBuilder(str.length()+size*8);
+        int max=str.length();
         for(int i=0;i<max;i++){
-            char ch=allChars[i];
+            char ch=str.charAt(i);
             boolean lastAppend=false;
-            for(StyleSpanInfo info:spanInfoList){
-                if(info==null){
+            for(int j=0;j<size;j++){
+                boolean isLast=(lasts[j]==i);
+                if(firsts[j]!=i && !isLast){
                     continue;
                 }
-                boolean isLast=(info.getLast()==i);
-                if(info.getFirst()==i || isLast){
-                    if(isLast && !lastAppend){
+                if(isLast){
+                    if(!lastAppend){
                         builder.append(ch);
                         lastAppend=true;
                     }
-                    if(isLast){
-                        builder.append(info.getEndTag());
-                    }else {
-                        builder.append(info.getStartTag());
+                    if(endTags[j]==null){
+                        endTags[j]=spans[j].getEndTag();
+                    }
+                    builder.append(endTags[j]);
+                }else {
+                    if(startTags[j]==null){
+                        startTags[j]=spans[j].getStartTag();
                     }
+                    builder.append(startTags[j]);
                 }
             }
             if(!lastAppend){
@@ -242,17 +293,6 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
         }
         return builder.toString();
     }
-    private boolean isEmpty(List<StyleSpanInfo> spanInfoList){
-        if(spanInfoList.size()==0){
-            return true;
-        }
-        for(StyleSpanInfo spanInfo:spanInfoList){
-            if(spanInfo!=null){
-                return false;
-            }
-        }
-        return true;
-    }
     @Override
     public void setNull(boolean is_null){
         if(!is_null){
@@ -261,15 +301,23 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
         setStylePieceCount(0);
     }
     @Override
+    protected void onBytesChanged(){
+        onStyleChanged();
+    }
+    private void onStyleChanged(){
+        BaseStringPool<?> stringPool = getStringPool();
+        if(stringPool!=null){
+            stringPool.onStyleChanged();
+        }
+    }
+    @Override
     public void onReadBytes(BlockReader reader) throws IOException {
         int nextPos=reader.searchNextIntPosition(4, END_VALUE);
         if(nextPos<0){
             return;
         }
         int len=nextPos-reader.getPosition()+4;
-        super.setBytesLength(len, false);
-        byte[] bts=getBytesInternal();
-        reader.readFully(bts);
+        readBytesInternal(reader, len);
         onBytesChanged();
     }
     public void addSpanInfo(String tag, int first, int last){
@@ -45,7 +45,13 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
     private final StringArray<T> mArrayStrings;
     private final StyleArray mArrayStyles;
 
-    private final Map<String, StringGroup<T>> mUniqueMap;
+    private final Map<StringKey, StringGroup<T>> mUniqueMap;
+    private boolean mUniqueMapChanged;
+    private StringPoolIndex<T> mStringIndex;
+    private boolean mStringsEdited;
+    private int mBulkEditCount;
+    private int mStylesModCount;
+    private int mStringsModCount;
 
 
     BaseStringPool(boolean is_utf8){
@@ -95,10 +101,11 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
         }else {
             uniqueSet=new HashSet<>(stringList);
         }
-        refreshUniqueIdMap();
-        Set<String> keySet=mUniqueMap.keySet();
-        for(String key:keySet){
-            uniqueSet.remove(key);
+        Iterator<String> iterator=uniqueSet.iterator();
+        while (iterator.hasNext()){
+            if(contains(iterator.next())){
+                iterator.remove();
+            }
         }
         List<String> sortedList=new ArrayList<>(stringList);
         sortedList.sort(this);
@@ -115,7 +122,6 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
             item.set(stringList.get(j));
             j++;
         }
-        refreshUniqueIdMap();
     }
     public Map<String, T> insertStrings(List<String> stringList){
         Map<String, T> results=new HashMap<>();
@@ -131,11 +137,167 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
             results.put(str, item);
             j++;
         }
-        refreshUniqueIdMap();
         return results;
     }
-    // call this after modifying string values
+    /**
+     * String values set through {@link StringItem#set(String)} are tracked incrementally,
+     * call this only after modifying styles or bytes directly
+     * */
     public void refreshUniqueIdMap(){
+        onStringsEdited();
+        mStringsModCount++;
+        mUniqueMapChanged=true;
+        if(mBulkEditCount==0){
+            ensureUniqueMap();
+        }
+    }
+    /**
+     * Suspends tracking of string changes until the matching {@link #commitBulkEdit()},
+     * then the lookup map is rebuilt once. Lookups in between rebuild the map first,
+     * thus should be avoided. Calls can be nested.
+     * */
+    public void beginBulkEdit(){
+        mBulkEditCount++;
+    }
+    public void commitBulkEdit(){
+        if(mBulkEditCount==0){
+            return;
+        }
+        mBulkEditCount--;
+        if(mBulkEditCount==0){
+            ensureUniqueMap();
+        }
+    }
+    /**
+     * Called by {@link StringItem} before its value is changed
+     * */
+    public void onStringChanging(StringItem stringItem){
+        // could be a tag of styles
+        onStyleChanged();
+        onStringsEdited();
+        // new strings are empty until set, thus not counted
+        if(stringItem.countBytes()!=0){
+            mStringsModCount++;
+        }
+        if(mUniqueMapChanged){
+            return;
+        }
+        if(mBulkEditCount!=0){
+            mUniqueMapChanged=true;
+            return;
+        }
+        T item=mArrayStrings.get(stringItem.getIndex());
+        if(item!=stringItem){
+            return;
+        }
+        StringKey key=toUniqueKey(item);
+        if(key==null){
+            return;
+        }
+        StringGroup<T> group=mUniqueMap.get(key);
+        if(group==null){
+            return;
+        }
+        group.remove(item);
+        if(group.size()==0){
+            mUniqueMap.remove(key);
+        }
+    }
+    /**
+     * Called by {@link StringItem} after its value is changed
+     * */
+    public void onStringChanged(StringItem stringItem){
+        if(mUniqueMapChanged){
+            return;
+        }
+        T item=mArrayStrings.get(stringItem.getIndex());
+        if(item!=stringItem){
+            return;
+        }
+        addToUniqueMap(toUniqueKey(item), item);
+    }
+    /**
+     * Called when styles, or strings used as tags of styles, are modified. Rendered html
+     * of styled strings is memoized until then.
+     * */
+    public void onStyleChanged(){
+        mStylesModCount++;
+    }
+    public int getStylesModCount(){
+        return mStylesModCount;
+    }
+    /**
+     * Incremented when value of an existing string may have changed, e.g. by
+     * {@link StringItem#set(String)}, loading or {@link #refreshUniqueIdMap()}.
+     * Adding new strings is not counted. Owners use it to drop lookups by string value.
+     * */
+    public int getStringsModCount(){
+        return mStringsModCount;
+    }
+    private void onStringsEdited(){
+        mStringsEdited=true;
+        mStringIndex=null;
+    }
+    /**
+     * Until the first edit after loading, lookups are answered by {@link StringPoolIndex}
+     * (or binary search on sorted pools) thus the map of groups is not built at all.
+     * Once edited, the map is built and then updated incrementally.
+     * */
+    private boolean canUseStringIndex(){
+        return mUniqueMapChanged && !mStringsEdited;
+    }
+    private StringPoolIndex<T> getStringIndex(){
+        StringPoolIndex<T> stringIndex=mStringIndex;
+        if(stringIndex==null){
+            stringIndex=new StringPoolIndex<>(this);
+            mStringIndex=stringIndex;
+        }
+        return stringIndex;
+    }
+    /**
+     * Searches strings of pools flagged as sorted, returns the lowest index equal
+     * to {@param str} or -1 if not found or not applicable
+     * */
+    private int binarySearch(String str){
+        if(!isSortedFlag() || countStyles()!=0){
+            return -1;
+        }
+        int low=0;
+        int high=countStrings()-1;
+        while (low<=high){
+            int mid=(low+high)>>>1;
+            String value=getString(mid);
+            if(value==null){
+                return -1;
+            }
+            int compare=value.compareTo(str);
+            if(compare<0){
+                low=mid+1;
+            }else if(compare>0){
+                high=mid-1;
+            }else {
+                while (mid>0 && str.equals(getString(mid-1))){
+                    mid--;
+                }
+                return mid;
+            }
+        }
+        return -1;
+    }
+    private String getString(int index){
+        T item=get(index);
+        if(item==null){
+            return null;
+        }
+        return item.get();
+    }
+    // strings are grouped by their encoded bytes, only styled strings are decoded
+    private void ensureUniqueMap(){
+        if(!mUniqueMapChanged){
+            return;
+        }
+        mUniqueMapChanged=false;
+        mStringIndex=null;
         mUniqueMap.clear();
         T[] allChildes=getStrings();
         if(allChildes==null){
@@ -147,20 +309,88 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
             if(item==null){
                 continue;
             }
-            String str=item.getHtml();
-            if(str==null){
+            addToUniqueMap(toUniqueKey(item), item);
+        }
+    }
+    private void addToUniqueMap(StringKey key, T item){
+        if(key==null){
+            return;
+        }
+        StringGroup<T> group=mUniqueMap.get(key);
+        if(group==null){
+            group=new StringGroup<>(mArrayStrings);
+            mUniqueMap.put(key, group);
+        }
+        group.add(item);
+    }
+    StringKey toUniqueKey(StringItem item){
+        if(item.getIndex()<countStyles()){
+            return StringKey.create(item.getHtml(), isUtf8Flag());
+        }
+        return item.getStringKey();
+    }
+    private void removeFromUniqueMap(Collection<T> itemList){
+        if(mUniqueMapChanged){
+            return;
+        }
+        for(T item:itemList){
+            StringKey key=item.getStringKey();
+            StringGroup<T> group=key!=null?mUniqueMap.get(key):null;
+            if(group!=null && group.contains(item)){
+                group.remove(item);
+                if(group.size()==0){
+                    mUniqueMap.remove(key);
+                }
                 continue;
             }
-            StringGroup<T> group= getOrCreateGroup(str);
-            group.add(item);
+            // styled, keyed by html
+            Iterator<StringGroup<T>> iterator=mUniqueMap.values().iterator();
+            while (iterator.hasNext()){
+                group=iterator.next();
+                if(group.contains(item)){
+                    group.remove(item);
+                    if(group.size()==0){
+                        iterator.remove();
+                    }
+                    break;
+                }
+            }
+        }
+    }
+    /**
+     * Drops decoded strings to save memory, each string is decoded again when accessed
+     * */
+    public void releaseStringCache(){
+        T[] allChildes=getStrings();
+        for(T item:allChildes){
+            if(item!=null){
+                item.releaseCache();
+            }
         }
     }
     public List<T> removeUnusedStrings(){
-        return getStringsArray().removeUnusedStrings();
+        loadReferences();
+        onStringsEdited();
+        List<T> removed=getStringsArray().removeUnusedStrings();
+        removeFromUniqueMap(removed);
+        return removed;
     }
     public List<T> listUnusedStrings(){
+        loadReferences();
         return getStringsArray().listUnusedStrings();
     }
+    /**
+     * Called before checking string usage, references held by lazily loaded
+     * blocks should be linked here
+     * */
+    protected void loadReferences(){
+    }
+    /**
+     * Returns count of leading strings whose indexes must not change
+     * */
+    int countFixedStrings(){
+        return countStyles();
+    }
     public Collection<T> listStrings(){
         return getStringsArray().listItems();
     }
@@ -207,32 +437,57 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
     }
 
     public boolean contains(String str){
-        return mUniqueMap.containsKey(str);
+        return indexOf(str)>=0;
+    }
+    /**
+     * Returns the lowest index of string (html for styled strings) equal to {@param str},
+     * otherwise -1
+     * */
+    public int indexOf(String str){
+        if(str==null){
+            return -1;
+        }
+        if(canUseStringIndex()){
+            int index=binarySearch(str);
+            if(index>=0){
+                return index;
+            }
+            return getStringIndex().indexOf(toStringKey(str));
+        }
+        ensureUniqueMap();
+        StringGroup<T> group=mUniqueMap.get(toStringKey(str));
+        if(group==null){
+            return -1;
+        }
+        int result=-1;
+        for(T item:group.listItems()){
+            int index=item.getIndex();
+            if(result<0 || index<result){
+                result=index;
+            }
+        }
+        return result;
     }
     public final T get(int index){
         return mArrayStrings.get(index);
     }
     public final StringGroup<T> get(String str){
-        return mUniqueMap.get(str);
-    }
-    public T getOrCreate(String str){
-        StringGroup<T> group=getOrCreateGroup(str);
-        T[] items=group.getItems();
-        if(items.length==0){
-            T t=createNewString(str);
-            group.add(t);
-            items=group.getItems();
+        if(canUseStringIndex()){
+            return getStringIndex().get(toStringKey(str));
         }
-        return items[0];
+        ensureUniqueMap();
+        return mUniqueMap.get(toStringKey(str));
     }
-    private StringGroup<T> getOrCreateGroup(String str){
+    public T getOrCreate(String str){
         StringGroup<T> group=get(str);
-        if(group!=null){
-            return group;
+        if(group!=null && group.size()!=0){
+            return group.get(0);
         }
-        group=new StringGroup<>(mArrayStrings, str);
-        mUniqueMap.put(str, group);
-        return group;
+        // the new string is added to unique map by onStringChanged
+        return createNewString(str);
+    }
+    private StringKey toStringKey(String str){
+        return StringKey.create(str, isUtf8Flag());
     }
     private T createNewString(String str){
         T item=mArrayStrings.createNext();
@@ -272,6 +527,9 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
             setSortedFlag((short)0);
         }
     }
+    public final boolean isSorted(){
+        return isSortedFlag();
+    }
     private void setUtf8(boolean is_utf8, boolean updateAll){
         boolean old= isUtf8Flag();
         if(is_utf8){
@@ -283,6 +541,9 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
             return;
         }
         mArrayStrings.setUtf8(is_utf8);
+        onStyleChanged();
+        onStringsEdited();
+        mUniqueMapChanged=true;
     }
     private boolean isUtf8Flag(){
         return (mFlagUtf8.get() & FLAG_UTF8) !=0;
@@ -300,13 +561,20 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
     }
     @Override
     public void onChunkLoaded() {
-        refreshUniqueIdMap();
+        onStyleChanged();
+        mStringsModCount++;
+        // built on first lookup
+        mUniqueMapChanged=true;
+        mStringIndex=null;
+        mStringsEdited=false;
     }
 
     @Override
     public void onBlockLoaded(BlockReader reader, Block sender) throws IOException {
         if(sender== mFlagUtf8){
             mArrayStrings.setUtf8(isUtf8Flag());
+            mUniqueMapChanged=true;
+            mStringIndex=null;
         }
     }
     @Override
@@ -326,6 +594,8 @@ public abstract class BaseStringPool<T extends StringItem> extends BaseChunk imp
         //Styled strings should be at first rows of string pool thus we clear all before adding
         getStringsArray().clearChildes();
         getStyleArray().clearChildes();
+        onStringsEdited();
+        mUniqueMap.clear();
 
         List<StyledString> styledStringList = StyledString.fromJson(jsonArray);
         loadText(styledStringList);
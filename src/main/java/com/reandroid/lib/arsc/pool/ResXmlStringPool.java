@@ -18,6 +18,9 @@ package com.reandroid.lib.arsc.pool;
 import com.reandroid.lib.arsc.array.StringArray;
 import com.reandroid.lib.arsc.array.ResXmlStringArray;
 import com.reandroid.lib.arsc.array.StyleArray;
+import com.reandroid.lib.arsc.base.Block;
+import com.reandroid.lib.arsc.chunk.xml.ResXmlBlock;
+import com.reandroid.lib.arsc.chunk.xml.ResXmlIDMap;
 import com.reandroid.lib.arsc.group.StringGroup;
 import com.reandroid.lib.arsc.item.IntegerArray;
 import com.reandroid.lib.arsc.item.IntegerItem;
@@ -46,9 +49,39 @@ public class ResXmlStringPool extends BaseStringPool<ResXmlString> {
         stringsArray.ensureSize(i+1);
         ResXmlString xmlString=stringsArray.get(i);
         xmlString.set(str);
-        refreshUniqueIdMap();
         return xmlString;
     }
+    /**
+     * References are linked again from the document, attribute values could be
+     * changed without updating references
+     * */
+    @Override
+    protected void loadReferences(){
+        Block parent=getParent();
+        if(!(parent instanceof ResXmlBlock)){
+            return;
+        }
+        for(ResXmlString xmlString:getStrings()){
+            if(xmlString!=null){
+                xmlString.removeAllReference();
+            }
+        }
+        ((ResXmlBlock) parent).linkStringReferences();
+    }
+    // attribute names are aligned to resource ids of ResXmlIDMap
+    @Override
+    int countFixedStrings(){
+        int result=super.countFixedStrings();
+        Block parent=getParent();
+        if(parent instanceof ResXmlBlock){
+            ResXmlIDMap idMap=((ResXmlBlock) parent).getResXmlIDMap();
+            int count=idMap.getResXmlIDArray().childesCount();
+            if(count>result){
+                result=count;
+            }
+        }
+        return result;
+    }
     @Override
     public void onChunkLoaded() {
         super.onChunkLoaded();
@@ -32,6 +32,13 @@ public class SpecStringPool extends BaseStringPool<SpecString> {
     StringArray<SpecString> newInstance(IntegerArray offsets, IntegerItem itemCount, IntegerItem itemStart, boolean is_utf8) {
         return new SpecStringArray(offsets, itemCount, itemStart, is_utf8);
     }
+    @Override
+    protected void loadReferences(){
+        PackageBlock packageBlock=getPackageBlock();
+        if(packageBlock!=null){
+            packageBlock.loadEntries();
+        }
+    }
     public PackageBlock getPackageBlock(){
         Block parent=getParent();
         while (parent!=null){
@@ -0,0 +1,118 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.pool;
+
+import com.reandroid.lib.arsc.group.StringGroup;
+import com.reandroid.lib.arsc.item.StringItem;
+import com.reandroid.lib.arsc.item.StringKey;
+
+/**
+ * Read only lookup table of (hash of encoded bytes -> string index), built in one pass
+ * over the pool without decoding strings and without per string objects.
+ * Open addressing with linear probing, items of equal keys are probed in index order.
+ * */
+class StringPoolIndex<T extends StringItem> {
+    private final BaseStringPool<T> mStringPool;
+    private final int[] mIndexes;
+    private final int[] mHashes;
+    private final int mMask;
+    StringPoolIndex(BaseStringPool<T> stringPool){
+        this.mStringPool=stringPool;
+        T[] allChildes=stringPool.getStrings();
+        int count=allChildes==null?0:allChildes.length;
+        int capacity=Integer.highestOneBit(count*2+1)<<1;
+        this.mIndexes=new int[capacity];
+        this.mHashes=new int[capacity];
+        this.mMask=capacity-1;
+        for(int i=0;i<count;i++){
+            T item=allChildes[i];
+            if(item==null){
+                continue;
+            }
+            StringKey key=stringPool.toUniqueKey(item);
+            if(key!=null){
+                add(key.hashCode(), i);
+            }
+        }
+    }
+    private void add(int hash, int index){
+        int mask=mMask;
+        int slot=mix(hash) & mask;
+        int[] indexes=mIndexes;
+        while (indexes[slot]!=0){
+            slot=(slot+1) & mask;
+        }
+        // stored as index+1, zero marks empty slot
+        indexes[slot]=index+1;
+        mHashes[slot]=hash;
+    }
+    /**
+     * Returns the lowest index of string equal to {@param key}, otherwise -1
+     * */
+    int indexOf(StringKey key){
+        if(key==null){
+            return -1;
+        }
+        int hash=key.hashCode();
+        int mask=mMask;
+        int slot=mix(hash) & mask;
+        int[] indexes=mIndexes;
+        int[] hashes=mHashes;
+        while (indexes[slot]!=0){
+            int index=indexes[slot]-1;
+            if(hashes[slot]==hash && isEqual(key, index)){
+                return index;
+            }
+            slot=(slot+1) & mask;
+        }
+        return -1;
+    }
+    /**
+     * Returns new group of all strings equal to {@param key}, otherwise null
+     * */
+    StringGroup<T> get(StringKey key){
+        if(key==null){
+            return null;
+        }
+        StringGroup<T> group=null;
+        int hash=key.hashCode();
+        int mask=mMask;
+        int slot=mix(hash) & mask;
+        int[] indexes=mIndexes;
+        int[] hashes=mHashes;
+        while (indexes[slot]!=0){
+            int index=indexes[slot]-1;
+            if(hashes[slot]==hash && isEqual(key, index)){
+                if(group==null){
+                    group=new StringGroup<>(mStringPool.getStringsArray());
+                }
+                group.add(mStringPool.get(index));
+            }
+            slot=(slot+1) & mask;
+        }
+        return group;
+    }
+    private boolean isEqual(StringKey key, int index){
+        T item=mStringPool.get(index);
+        if(item==null){
+            return false;
+        }
+        return key.equals(mStringPool.toUniqueKey(item));
+    }
+    private static int mix(int hash){
+        return hash ^ (hash>>>16);
+    }
+}
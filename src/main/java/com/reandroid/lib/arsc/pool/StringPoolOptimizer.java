@@ -0,0 +1,221 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.pool;
+
+import com.reandroid.lib.arsc.array.StringArray;
+import com.reandroid.lib.arsc.item.ReferenceItem;
+import com.reandroid.lib.arsc.item.StringItem;
+import com.reandroid.lib.arsc.item.StringKey;
+import com.reandroid.lib.arsc.item.StyleItem;
+
+import java.util.*;
+
+/**
+ * Shrinks {@link TableStringPool} or {@link ResXmlStringPool} in place: byte identical
+ * duplicates are merged, unreferenced strings are removed, the rest is ordered by count
+ * of references and encoded as the smaller of utf8/utf16.
+ * Styled strings (and attribute names of xml) keep their indexes, references and style
+ * tags are remapped at once. Strings without linked reference are treated as unused,
+ * parent chunk should be refreshed afterwards.
+ * */
+public class StringPoolOptimizer {
+    private boolean mReorder;
+    private boolean mChooseEncoding;
+    private int mMergedStrings;
+    private int mRemovedStrings;
+    private int mSavedBytes;
+    public StringPoolOptimizer(){
+        this.mReorder=true;
+        this.mChooseEncoding=true;
+    }
+    /**
+     * Orders strings by count of references, pools flagged as sorted are never reordered
+     * */
+    public void setReorder(boolean reorder){
+        this.mReorder=reorder;
+    }
+    public boolean isReorder(){
+        return mReorder;
+    }
+    public void setChooseEncoding(boolean chooseEncoding){
+        this.mChooseEncoding=chooseEncoding;
+    }
+    public boolean isChooseEncoding(){
+        return mChooseEncoding;
+    }
+    public int getMergedStrings(){
+        return mMergedStrings;
+    }
+    public int getRemovedStrings(){
+        return mRemovedStrings;
+    }
+    public int getSavedBytes(){
+        return mSavedBytes;
+    }
+    /**
+     * Returns count of bytes saved
+     * */
+    public int optimize(BaseStringPool<?> stringPool){
+        mMergedStrings=0;
+        mRemovedStrings=0;
+        mSavedBytes=0;
+        stringPool.refresh();
+        int before=stringPool.countBytes();
+        optimizeStrings(stringPool);
+        stringPool.refresh();
+        mSavedBytes=before-stringPool.countBytes();
+        return mSavedBytes;
+    }
+    private <T extends StringItem> void optimizeStrings(BaseStringPool<T> stringPool){
+        stringPool.loadReferences();
+        StringArray<T> stringArray=stringPool.getStringsArray();
+        int count=stringArray.childesCount();
+        int fixed=Math.min(stringPool.countFixedStrings(), count);
+        boolean[] styleTags=listStyleTags(stringPool, count);
+        final int[] referenceCounts=new int[count];
+        int[] mergedTo=new int[count];
+        List<T> allItems=new ArrayList<>(count);
+        List<Integer> movable=new ArrayList<>();
+        Map<StringKey, Integer> uniqueMap=new HashMap<>();
+        for(int i=0;i<count;i++){
+            T item=stringArray.get(i);
+            allItems.add(item);
+            mergedTo[i]=-1;
+            referenceCounts[i]=removeStaleReferences(item);
+            if(i<fixed){
+                continue;
+            }
+            if(referenceCounts[i]==0 && !styleTags[i]){
+                mRemovedStrings++;
+                continue;
+            }
+            StringKey key=stringPool.toUniqueKey(item);
+            Integer exist=key==null?null:uniqueMap.get(key);
+            if(exist!=null){
+                T existItem=allItems.get(exist);
+                existItem.addReference(item.getReferencedList());
+                item.removeAllReference();
+                referenceCounts[exist]+=referenceCounts[i];
+                mergedTo[i]=exist;
+                mMergedStrings++;
+                continue;
+            }
+            if(key!=null){
+                uniqueMap.put(key, i);
+            }
+            movable.add(i);
+        }
+        if(mReorder && !stringPool.isSorted()){
+            // stable, equally referenced strings keep their order
+            Collections.sort(movable, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer i1, Integer i2) {
+                    return Integer.compare(referenceCounts[i2], referenceCounts[i1]);
+                }
+            });
+        }
+        int[] indexMap=new int[count];
+        Arrays.fill(indexMap, -1);
+        List<T> results=new ArrayList<>(fixed+movable.size());
+        for(int i=0;i<fixed;i++){
+            indexMap[i]=i;
+            results.add(allItems.get(i));
+        }
+        for(Integer i:movable){
+            indexMap[i]=results.size();
+            results.add(allItems.get(i));
+        }
+        for(int i=0;i<count;i++){
+            if(mergedTo[i]>=0){
+                indexMap[i]=indexMap[mergedTo[i]];
+            }
+        }
+        // indexes are assigned without notifying references, thus updated here once
+        stringArray.clearChildes();
+        stringArray.addAll(results);
+        for(T item:results){
+            updateReferences(item);
+        }
+        remapStyleTags(stringPool, indexMap);
+        if(mChooseEncoding){
+            chooseEncoding(stringPool, results);
+        }
+        stringPool.refreshUniqueIdMap();
+    }
+    private void chooseEncoding(BaseStringPool<?> stringPool, List<? extends StringItem> itemList){
+        long utf8=0;
+        long utf16=0;
+        for(StringItem item:itemList){
+            int size=item.countEncodedBytes(true);
+            if(size<0){
+                utf8=-1;
+                break;
+            }
+            utf8+=size;
+            utf16+=item.countEncodedBytes(false);
+        }
+        if(utf8<0){
+            stringPool.setUtf8(false);
+            return;
+        }
+        if(utf8!=utf16){
+            stringPool.setUtf8(utf8<utf16);
+        }
+    }
+    private static int removeStaleReferences(StringItem item){
+        List<ReferenceItem> referenceList=item.getReferencedList();
+        int index=item.getIndex();
+        List<ReferenceItem> staleList=null;
+        for(ReferenceItem ref:referenceList){
+            if(ref.get()==index){
+                continue;
+            }
+            if(staleList==null){
+                staleList=new ArrayList<>();
+            }
+            staleList.add(ref);
+        }
+        if(staleList!=null){
+            item.removeAllReference(staleList);
+        }
+        return referenceList.size();
+    }
+    private static void updateReferences(StringItem item){
+        int index=item.getIndex();
+        for(Object obj:item.getReferencedList().toArray()){
+            ReferenceItem ref=(ReferenceItem) obj;
+            if(ref.get()!=index){
+                ref.set(index);
+            }
+        }
+    }
+    private static boolean[] listStyleTags(BaseStringPool<?> stringPool, int count){
+        boolean[] results=new boolean[count];
+        for(StyleItem styleItem:stringPool.getStyleArray().listItems()){
+            for(int ref:styleItem.getStringReferences()){
+                if(ref>=0 && ref<count){
+                    results[ref]=true;
+                }
+            }
+        }
+        return results;
+    }
+    private static void remapStyleTags(BaseStringPool<?> stringPool, int[] indexMap){
+        for(StyleItem styleItem:stringPool.getStyleArray().listItems()){
+            styleItem.remapStringReferences(indexMap);
+        }
+    }
+}
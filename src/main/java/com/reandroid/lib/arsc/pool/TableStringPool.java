@@ -17,7 +17,10 @@ package com.reandroid.lib.arsc.pool;
 
 import com.reandroid.lib.arsc.array.StringArray;
 import com.reandroid.lib.arsc.array.TableStringArray;
+import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.chunk.ChunkType;
+import com.reandroid.lib.arsc.chunk.PackageBlock;
+import com.reandroid.lib.arsc.chunk.TableBlock;
 import com.reandroid.lib.arsc.header.AnyHeader;
 import com.reandroid.lib.arsc.io.BlockReader;
 import com.reandroid.lib.arsc.item.IntegerArray;
@@ -36,6 +39,15 @@ import java.io.InputStream;
     StringArray<TableString> newInstance(IntegerArray offsets, IntegerItem itemCount, IntegerItem itemStart, boolean is_utf8) {
         return new TableStringArray(offsets, itemCount, itemStart, is_utf8);
     }
+    @Override
+    protected void loadReferences(){
+        Block parent=getParent();
+        if(parent instanceof TableBlock){
+            for(PackageBlock packageBlock:((TableBlock) parent).listPackages()){
+                packageBlock.loadEntries();
+            }
+        }
+    }
     public void merge(TableStringPool stringPool){
         if(stringPool==null||stringPool==this){
             return;
@@ -70,6 +82,7 @@ import java.io.InputStream;
         }
         byte[] poolBytes = poolHeader.readChunkBytes(inputStream);
         BlockReader blockReader = new BlockReader(poolBytes);
+        blockReader.setSynchronized(false);
         TableStringPool stringPool = new TableStringPool(true);
         stringPool.readBytes(blockReader);
         blockReader.close();
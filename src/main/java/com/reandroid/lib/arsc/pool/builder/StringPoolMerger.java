@@ -23,15 +23,31 @@ import com.reandroid.lib.arsc.model.StyleSpanInfo;
 import com.reandroid.lib.arsc.pool.TableStringPool;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class StringPoolMerger implements Comparator<String> {
     private final Set<TableStringPool> mPools;
     private int mMergedPools;
     private int mMergedStrings;
     private int mMergedStyleStrings;
+    private boolean mParallel;
     public StringPoolMerger(){
         this.mPools=new HashSet<>();
     }
+    /**
+     * Collects non-styled strings on multiple threads, pools are decoded concurrently
+     * and strings are de-duplicated on hash shards. The result is the same as of
+     * sequential merge. Falls back to sequential if there are not multiple processors.
+     * */
+    public void setParallel(boolean parallel){
+        this.mParallel=parallel;
+    }
+    public boolean isParallel(){
+        return mParallel;
+    }
     public void mergeTo(TableStringPool destination){
         mMergedPools=0;
         mMergedStrings=0;
@@ -87,8 +103,16 @@ public class StringPoolMerger implements Comparator<String> {
         mMergedStyleStrings=styledStrings.size();
     }
     private void mergeNonStyledStrings(TableStringPool destination){
-        List<String> nonStyledStrings=getNonStyledStrings();
+        List<String> nonStyledStrings;
+        if(isParallel() && mPools.size()>1
+                && ForkJoinPool.getCommonPoolParallelism()>1){
+            nonStyledStrings=getNonStyledStringsParallel();
+        }else {
+            nonStyledStrings=getNonStyledStrings();
+        }
+        destination.beginBulkEdit();
         destination.insertStrings(nonStyledStrings);
+        destination.commitBulkEdit();
         mMergedStrings=nonStyledStrings.size();
     }
     private List<TableString> getStyledStrings(){
@@ -125,6 +149,111 @@ public class StringPoolMerger implements Comparator<String> {
         results.sort(this);
         return results;
     }
+    private List<String> getNonStyledStringsParallel(){
+        ForkJoinPool forkJoinPool=ForkJoinPool.commonPool();
+        final int shardCount=Math.max(1, forkJoinPool.getParallelism());
+        List<Future<List<List<String>>>> poolFutures=new ArrayList<>(mPools.size());
+        for(final TableStringPool pool:mPools){
+            poolFutures.add(forkJoinPool.submit(new Callable<List<List<String>>>() {
+                @Override
+                public List<List<String>> call() {
+                    return collectNonStyledStrings(pool, shardCount);
+                }
+            }));
+        }
+        final List<List<List<String>>> poolShards=getAll(poolFutures);
+        List<Future<List<String>>> shardFutures=new ArrayList<>(shardCount);
+        for(int i=0;i<shardCount;i++){
+            final int shard=i;
+            shardFutures.add(forkJoinPool.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() {
+                    Set<String> uniqueSet=new HashSet<>();
+                    for(List<List<String>> shards:poolShards){
+                        uniqueSet.addAll(shards.get(shard));
+                    }
+                    List<String> results=new ArrayList<>(uniqueSet);
+                    results.sort(StringPoolMerger.this);
+                    return results;
+                }
+            }));
+        }
+        List<List<String>> sortedShards=getAll(shardFutures);
+        while (sortedShards.size()>1){
+            List<List<String>> merged=new ArrayList<>((sortedShards.size()+1)/2);
+            for(int i=0;i<sortedShards.size();i+=2){
+                if(i+1<sortedShards.size()){
+                    merged.add(mergeSorted(sortedShards.get(i), sortedShards.get(i+1)));
+                }else {
+                    merged.add(sortedShards.get(i));
+                }
+            }
+            sortedShards=merged;
+        }
+        if(sortedShards.size()==0){
+            return new ArrayList<>();
+        }
+        return sortedShards.get(0);
+    }
+    private static List<List<String>> collectNonStyledStrings(TableStringPool pool, int shardCount){
+        List<List<String>> shards=new ArrayList<>(shardCount);
+        for(int i=0;i<shardCount;i++){
+            shards.add(new ArrayList<String>());
+        }
+        TableString[] tableStrings = pool.getStrings();
+        if(tableStrings==null){
+            return shards;
+        }
+        for(int i=0;i<tableStrings.length;i++){
+            TableString tableString=tableStrings[i];
+            if(tableString==null || tableString.hasStyle()){
+                continue;
+            }
+            String str=tableString.get();
+            if(str==null){
+                continue;
+            }
+            int hash=str.hashCode();
+            hash=hash ^ (hash>>>16);
+            shards.get((hash & 0x7fffffff) % shardCount).add(str);
+        }
+        return shards;
+    }
+    private List<String> mergeSorted(List<String> list1, List<String> list2){
+        List<String> results=new ArrayList<>(list1.size()+list2.size());
+        int size1=list1.size();
+        int size2=list2.size();
+        int i=0;
+        int j=0;
+        while (i<size1 && j<size2){
+            String s1=list1.get(i);
+            String s2=list2.get(j);
+            if(compare(s1, s2)<=0){
+                results.add(s1);
+                i++;
+            }else {
+                results.add(s2);
+                j++;
+            }
+        }
+        results.addAll(list1.subList(i, size1));
+        results.addAll(list2.subList(j, size2));
+        return results;
+    }
+    private static <T> List<T> getAll(List<Future<T>> futureList){
+        List<T> results=new ArrayList<>(futureList.size());
+        try{
+            for(Future<T> future:futureList){
+                results.add(future.get());
+            }
+        }catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while merging string pools", ex);
+        }catch (ExecutionException ex){
+            throw new IllegalStateException("Failed to merge string pools: "+ex.getCause(), ex.getCause());
+        }
+        return results;
+    }
     private List<String> toStringList(Collection<TableString> tableStringList){
         List<String> results=new ArrayList<>(tableStringList.size());
         for(TableString tableString:tableStringList){
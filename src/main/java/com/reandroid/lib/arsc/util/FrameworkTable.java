@@ -118,9 +118,9 @@ public class FrameworkTable extends TableBlock {
      */
     public EntryBlock searchEntryBlockFromTable(String typeName, String entryName){
         for(PackageBlock packageBlock:listPackages()){
-            SpecTypePair specTypePair = packageBlock.searchByTypeName(typeName);
-            if(specTypePair!=null){
-                return specTypePair.searchByEntryName(entryName);
+            EntryGroup entryGroup = packageBlock.searchEntryGroup(typeName, entryName);
+            if(entryGroup!=null){
+                return entryGroup.pickOne();
             }
         }
         return null;
@@ -167,11 +167,13 @@ public class FrameworkTable extends TableBlock {
         return writeBytes(outputStream);
     }
     public void readTable(File resourcesArscFile) throws IOException{
-        FileInputStream inputStream=new FileInputStream(resourcesArscFile);
-        readTable(inputStream);
+        BlockReader reader=BlockReader.map(resourcesArscFile);
+        reader.setSynchronized(false);
+        super.readBytes(reader);
     }
     public void readTable(InputStream inputStream) throws IOException{
         BlockReader reader=new BlockReader(inputStream);
+        reader.setSynchronized(false);
         super.readBytes(reader);
     }
     @Override
@@ -414,7 +416,9 @@ public class FrameworkTable extends TableBlock {
         return builder.toString();
     }
     public static FrameworkTable load(File file) throws IOException{
-        return load(new FileInputStream(file));
+        FrameworkTable frameworkTable=new FrameworkTable();
+        frameworkTable.readBytes(file);
+        return frameworkTable;
     }
     public static FrameworkTable load(InputStream inputStream) throws IOException{
         FrameworkTable frameworkTable=new FrameworkTable();
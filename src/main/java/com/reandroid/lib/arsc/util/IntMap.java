@@ -0,0 +1,264 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.util;
+
+import java.util.*;
+
+/**
+ * Open addressing (linear probing) map of int keys, {@link #get(int)}, {@link #put(int, Object)}
+ * and {@link #remove(int)} neither box keys nor create entry objects. Null values are not kept,
+ * putting null removes the key. Also usable as {@link Map} for compatibility, its views are
+ * read only and iteration order is unspecified.
+ * */
+public class IntMap<T> extends AbstractMap<Integer, T> {
+    private int[] mKeys;
+    private Object[] mValues;
+    private int mMask;
+    private int mSize;
+    private int mModCount;
+    public IntMap(int initialCapacity){
+        int length=MIN_LENGTH;
+        while (length<initialCapacity*2){
+            length=length<<1;
+        }
+        allocate(length);
+    }
+    public IntMap(){
+        this(0);
+    }
+    @SuppressWarnings("unchecked")
+    public T get(int key){
+        int[] keys=mKeys;
+        Object[] values=mValues;
+        int mask=mMask;
+        int slot=hash(key) & mask;
+        Object value;
+        while ((value=values[slot])!=null){
+            if(keys[slot]==key){
+                return (T) value;
+            }
+            slot=(slot+1) & mask;
+        }
+        return null;
+    }
+    public boolean containsKey(int key){
+        return get(key)!=null;
+    }
+    @SuppressWarnings("unchecked")
+    public T put(int key, T value){
+        if(value==null){
+            return remove(key);
+        }
+        int[] keys=mKeys;
+        Object[] values=mValues;
+        int mask=mMask;
+        int slot=hash(key) & mask;
+        Object exist;
+        while ((exist=values[slot])!=null){
+            if(keys[slot]==key){
+                values[slot]=value;
+                return (T) exist;
+            }
+            slot=(slot+1) & mask;
+        }
+        keys[slot]=key;
+        values[slot]=value;
+        mSize++;
+        mModCount++;
+        if(mSize*2>keys.length){
+            allocate(keys.length<<1);
+        }
+        return null;
+    }
+    @SuppressWarnings("unchecked")
+    public T remove(int key){
+        int[] keys=mKeys;
+        Object[] values=mValues;
+        int mask=mMask;
+        int slot=hash(key) & mask;
+        Object exist;
+        while ((exist=values[slot])!=null){
+            if(keys[slot]==key){
+                removeAt(slot);
+                return (T) exist;
+            }
+            slot=(slot+1) & mask;
+        }
+        return null;
+    }
+    // backward shift deletion, no tombstones are left
+    private void removeAt(int slot){
+        int[] keys=mKeys;
+        Object[] values=mValues;
+        int mask=mMask;
+        int hole=slot;
+        int i=(slot+1) & mask;
+        while (values[i]!=null){
+            int home=hash(keys[i]) & mask;
+            if(((i-home) & mask) >= ((i-hole) & mask)){
+                keys[hole]=keys[i];
+                values[hole]=values[i];
+                hole=i;
+            }
+            i=(i+1) & mask;
+        }
+        keys[hole]=0;
+        values[hole]=null;
+        mSize--;
+        mModCount++;
+    }
+    private void allocate(int length){
+        int[] oldKeys=mKeys;
+        Object[] oldValues=mValues;
+        int[] keys=new int[length];
+        Object[] values=new Object[length];
+        int mask=length-1;
+        if(oldValues!=null){
+            for(int i=0;i<oldValues.length;i++){
+                Object value=oldValues[i];
+                if(value==null){
+                    continue;
+                }
+                int key=oldKeys[i];
+                int slot=hash(key) & mask;
+                while (values[slot]!=null){
+                    slot=(slot+1) & mask;
+                }
+                keys[slot]=key;
+                values[slot]=value;
+            }
+        }
+        mKeys=keys;
+        mValues=values;
+        mMask=mask;
+    }
+    @Override
+    public int size(){
+        return mSize;
+    }
+    @Override
+    public boolean isEmpty(){
+        return mSize==0;
+    }
+    @Override
+    public void clear(){
+        if(mSize==0){
+            return;
+        }
+        Arrays.fill(mKeys, 0);
+        Arrays.fill(mValues, null);
+        mSize=0;
+        mModCount++;
+    }
+    @Override
+    public T get(Object key){
+        if(!(key instanceof Integer)){
+            return null;
+        }
+        return get(((Integer) key).intValue());
+    }
+    @Override
+    public boolean containsKey(Object key){
+        return get(key)!=null;
+    }
+    @Override
+    public T put(Integer key, T value){
+        return put(key.intValue(), value);
+    }
+    @Override
+    public T remove(Object key){
+        if(!(key instanceof Integer)){
+            return null;
+        }
+        return remove(((Integer) key).intValue());
+    }
+    @Override
+    public Collection<T> values(){
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new SlotIterator<T>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    T get(int slot) {
+                        return (T) mValues[slot];
+                    }
+                };
+            }
+            @Override
+            public int size() {
+                return mSize;
+            }
+        };
+    }
+    @Override
+    public Set<Entry<Integer, T>> entrySet(){
+        return new AbstractSet<Entry<Integer, T>>() {
+            @Override
+            public Iterator<Entry<Integer, T>> iterator() {
+                return new SlotIterator<Entry<Integer, T>>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<Integer, T> get(int slot) {
+                        return new SimpleImmutableEntry<>(mKeys[slot], (T) mValues[slot]);
+                    }
+                };
+            }
+            @Override
+            public int size() {
+                return mSize;
+            }
+        };
+    }
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private final int mExpectedModCount;
+        private int mSlot;
+        SlotIterator(){
+            this.mExpectedModCount=mModCount;
+            this.mSlot=nextSlot(0);
+        }
+        abstract E get(int slot);
+        private int nextSlot(int slot){
+            Object[] values=mValues;
+            while (slot<values.length && values[slot]==null){
+                slot++;
+            }
+            return slot;
+        }
+        @Override
+        public boolean hasNext() {
+            return mSlot<mValues.length;
+        }
+        @Override
+        public E next() {
+            if(mModCount!=mExpectedModCount){
+                throw new ConcurrentModificationException();
+            }
+            int slot=mSlot;
+            if(slot>=mValues.length){
+                throw new NoSuchElementException();
+            }
+            mSlot=nextSlot(slot+1);
+            return get(slot);
+        }
+    }
+    private static int hash(int key){
+        int h=key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final int MIN_LENGTH = 8;
+}
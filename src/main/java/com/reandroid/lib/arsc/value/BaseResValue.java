@@ -71,11 +71,7 @@ public abstract class BaseResValue extends BlockItem implements JSONConvert<JSON
 
     }
     int getInt(int offset){
-        byte[] bts = getBytesInternal();
-        return bts[offset] & 0xff |
-                (bts[offset+1] & 0xff) << 8 |
-                (bts[offset+2] & 0xff) << 16 |
-                (bts[offset+3] & 0xff) << 24;
+        return getIntAt(offset);
     }
     void setInt(int offset, int val){
         if(val==getInt(offset)){
@@ -98,21 +94,18 @@ public abstract class BaseResValue extends BlockItem implements JSONConvert<JSON
         onBytesChanged();
     }
     short getShort(int offset){
-        byte[] bts=getBytesInternal();
-        int i= bts[offset] & 0xff |
-                (bts[offset+1] & 0xff) << 8 ;
-        return (short)i;
+        return getShortAt(offset);
     }
     void setByte(int offset, byte b){
-        byte[] bts=getBytesInternal();
-        if(b==bts[offset]){
+        if(b==getByte(offset)){
             return;
         }
+        byte[] bts=getBytesInternal();
         bts[offset]=b;
         onBytesChanged();
     }
     byte getByte(int offset){
-        return getBytesInternal()[offset];
+        return getByteAt(offset);
     }
 
     static final String NAME_data = "data";
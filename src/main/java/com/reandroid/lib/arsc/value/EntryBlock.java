@@ -22,6 +22,7 @@ import com.reandroid.lib.arsc.chunk.TableBlock;
 import com.reandroid.lib.arsc.chunk.TypeBlock;
 import com.reandroid.lib.arsc.group.EntryGroup;
 import com.reandroid.lib.arsc.io.BlockReader;
+import com.reandroid.lib.arsc.io.BlockWriter;
 import com.reandroid.lib.arsc.item.*;
 import com.reandroid.lib.arsc.pool.SpecStringPool;
 import com.reandroid.lib.arsc.pool.TableStringPool;
@@ -41,6 +42,7 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
     private IntegerItem mSpecReference;
     private BaseResValue mResValue;
     private boolean mUnLocked;
+    private boolean mCompact;
     public EntryBlock() {
         super();
     }
@@ -275,6 +277,43 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
     public boolean isEntryTypePublic(){
         return mFlagEntryType.getBit(2);
     }
+    /**
+     * Compact entry (API 34+) holds key, flags, value type and data on 8 bytes. Applies only to
+     * simple entries with key index up to 0xffff, see {@link #canBeCompact()}
+     * */
+    public boolean isCompact(){
+        return mCompact;
+    }
+    public void setCompact(boolean compact){
+        if(compact==mCompact){
+            return;
+        }
+        boolean old=isCompactEncoded();
+        mCompact=compact;
+        if(old!=isCompactEncoded()){
+            notifyCountChanged();
+        }
+    }
+    public boolean canBeCompact(){
+        if(isNull() || isEntryTypeBag()){
+            return false;
+        }
+        if(mHeaderSize.get()!=HEADER_SIZE_INT || mByteFlagsB.get()!=0){
+            return false;
+        }
+        int key=getSpecReference();
+        if(key<0 || key>0xffff){
+            return false;
+        }
+        if(!(mResValue instanceof ResValueInt)){
+            return false;
+        }
+        ResValueInt resValueInt=(ResValueInt) mResValue;
+        return resValueInt.getHeaderSize()==HEADER_SIZE_INT && resValueInt.getReserved()==0;
+    }
+    private boolean isCompactEncoded(){
+        return mCompact && canBeCompact();
+    }
     private void setByteFlagsB(byte b){
         mByteFlagsB.set(b);
     }
@@ -293,10 +332,16 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
         if(ref==old){
             return;
         }
+        boolean compact=isCompactEncoded();
         mSpecReference.set(ref);
         updateSpecRef(old, ref);
         if(created){
             updatePackage();
+        }else {
+            updatePackageName();
+        }
+        if(compact!=isCompactEncoded()){
+            notifyCountChanged();
         }
     }
     public void setSpecReference(SpecString specString){
@@ -305,9 +350,15 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
             return;
         }
         boolean created = createNullSpecReference();
+        boolean compact=isCompactEncoded();
         mSpecReference.set(specString.getIndex());
         if(created){
             updatePackage();
+        }else {
+            updatePackageName();
+        }
+        if(compact!=isCompactEncoded()){
+            notifyCountChanged();
         }
     }
     private boolean createNullSpecReference(){
@@ -353,6 +404,7 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
             setNull(false);
         }
         mResValue=resValue;
+        notifyCountChanged();
     }
 
     public ResConfig getResConfig(){
@@ -528,7 +580,7 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
         mFlagEntryType.setParent(this);
         mByteFlagsB.setParent(this);
         mSpecReference.setParent(this);
-
+        notifyCountChanged();
     }
     private void lockEntry(){
         if(!mUnLocked){
@@ -551,12 +603,14 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
         this.mFlagEntryType =null;
         this.mByteFlagsB =null;
         this.mSpecReference =null;
+        notifyCountChanged();
     }
     private void removeResValue(){
         if(mResValue!=null){
             mResValue.setParent(null);
             mResValue.setIndex(-1);
             mResValue=null;
+            notifyCountChanged();
         }
     }
     private void refreshHeaderSize(){
@@ -596,15 +650,7 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
     }
     @Override
     public byte[] getBytes() {
-        if(isNull()){
-            return null;
-        }
-        byte[] results=mHeaderSize.getBytes();
-        results=addBytes(results, mFlagEntryType.getBytes());
-        results=addBytes(results, mByteFlagsB.getBytes());
-        results=addBytes(results, mSpecReference.getBytes());
-        results=addBytes(results, mResValue.getBytes());
-        return results;
+        return BlockWriter.toBytes(this);
     }
     @Override
     public int countBytes() {
@@ -618,6 +664,10 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
                           -------
                   Total = 8 bytes, thus this value is always fixed no need to re-count
         */
+        if(isCompactEncoded()){
+            // value is inlined to the header
+            return 8;
+        }
         return 8 + mResValue.countBytes();
     }
     @Override
@@ -644,6 +694,9 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
         if(isNull()){
             return 0;
         }
+        if(isCompactEncoded()){
+            return writeCompact(stream);
+        }
         int result=mHeaderSize.writeBytes(stream);
         result+= mFlagEntryType.writeBytes(stream);
         result+=mByteFlagsB.writeBytes(stream);
@@ -651,6 +704,22 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
         result+=mResValue.writeBytes(stream);
         return result;
     }
+    private int writeCompact(OutputStream stream) throws IOException {
+        ResValueInt resValueInt=(ResValueInt) mResValue;
+        int key=getSpecReference();
+        int data=resValueInt.getData();
+        byte[] bts=new byte[8];
+        bts[0]=(byte) key;
+        bts[1]=(byte) (key >>> 8);
+        bts[2]=(byte) (mFlagEntryType.get() | FLAG_COMPACT);
+        bts[3]=resValueInt.getType();
+        bts[4]=(byte) data;
+        bts[5]=(byte) (data >>> 8);
+        bts[6]=(byte) (data >>> 16);
+        bts[7]=(byte) (data >>> 24);
+        stream.write(bts);
+        return bts.length;
+    }
 
     private void updateSpecRef(){
         updateSpecRef(-1, getSpecReference());
@@ -691,6 +760,13 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
         }
         packageBlock.onEntryAdded(this);
     }
+    private void updatePackageName(){
+        PackageBlock packageBlock=getPackageBlock();
+        if(packageBlock==null){
+            return;
+        }
+        packageBlock.onEntryNameChanged(this);
+    }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException{
         setNull(false);
@@ -699,8 +775,36 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
         mFlagEntryType.readBytes(reader);
         mByteFlagsB.readBytes(reader);
         mSpecReference.readBytes(reader);
-        createResValue();
-        mResValue.readBytes(reader);
+        if((mFlagEntryType.get() & FLAG_COMPACT)!=0){
+            onCompactLoaded();
+        }else {
+            mCompact=false;
+            createResValue();
+            mResValue.readBytes(reader);
+        }
+        if(!reader.isParallelLoad()){
+            linkReferences();
+        }
+    }
+    // compact header is key, flags, value type and data, moved to the full entry layout
+    private void onCompactLoaded(){
+        mCompact=true;
+        int key=mHeaderSize.get() & 0xffff;
+        byte type=mByteFlagsB.get();
+        int data=mSpecReference.get();
+        mHeaderSize.set(HEADER_SIZE_INT);
+        mFlagEntryType.set((byte) (mFlagEntryType.get() & ~FLAG_COMPACT));
+        mByteFlagsB.set((byte) 0);
+        mSpecReference.set(key);
+        ResValueInt resValueInt=new ResValueInt();
+        setResValueInternal(resValueInt);
+        resValueInt.onCompactLoaded(type, data);
+    }
+    /**
+     * Registers this entry to package and string pools after reading, called by parent
+     * type block when entries are read in parallel
+     * */
+    public void linkReferences(){
         updatePackage();
         updateSpecRef();
         mResValue.onDataLoaded();
@@ -835,6 +939,7 @@ public class EntryBlock extends Block implements JSONConvert<JSONObject> {
 
     private final static short HEADER_SIZE_BAG = 0x0010;
     private final static short HEADER_SIZE_INT = 0x0008;
+    private final static byte FLAG_COMPACT = 0x08;
 
     public static final String NAME_entry_name ="entry_name";
     private static final String NAME_is_bag="is_bag";
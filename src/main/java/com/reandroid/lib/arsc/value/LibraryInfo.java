@@ -18,6 +18,7 @@ package com.reandroid.lib.arsc.value;
 import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.base.BlockCounter;
 import com.reandroid.lib.arsc.io.BlockReader;
+import com.reandroid.lib.arsc.io.BlockWriter;
 import com.reandroid.lib.arsc.item.FixedLengthString;
 import com.reandroid.lib.arsc.item.IntegerItem;
 import com.reandroid.lib.json.JSONConvert;
@@ -55,10 +56,7 @@ public class LibraryInfo extends Block implements JSONConvert<JSONObject> {
 
     @Override
     public byte[] getBytes() {
-        if(isNull()){
-            return null;
-        }
-        return addBytes(mPackageId.getBytes(), mPackageName.getBytes());
+        return BlockWriter.toBytes(this);
     }
     @Override
     public int countBytes() {
@@ -19,6 +19,7 @@ import com.reandroid.lib.arsc.array.ResValueBagItemArray;
 import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.base.BlockCounter;
 import com.reandroid.lib.arsc.io.BlockReader;
+import com.reandroid.lib.arsc.io.BlockWriter;
 import com.reandroid.lib.arsc.item.IntegerItem;
 import com.reandroid.lib.arsc.item.ReferenceItem;
 import com.reandroid.lib.json.JSONObject;
@@ -85,10 +86,7 @@ public class ResValueBag extends BaseResValue {
 
     @Override
     public byte[] getBytes() {
-        byte[] results = mParentId.getBytes();
-        results=addBytes(results, mCount.getBytes());
-        results=addBytes(results, mResValueBagItemArray.getBytes());
-        return results;
+        return BlockWriter.toBytes(this);
     }
     @Override
     public int countBytes() {
@@ -102,6 +102,13 @@ public class ResValueInt extends BaseResValueItem  {
             addTableReference(getTableStringReference());
         }
     }
+    /**
+     * Sets value of compact entry as it is read, references are linked later by onDataLoaded
+     * */
+    void onCompactLoaded(byte type, int data){
+        setByte(OFFSET_TYPE, type);
+        setInt(OFFSET_DATA, data);
+    }
     @Override
     public void onSetReference(int data){
         setInt(OFFSET_DATA, data);
@@ -1,5 +1,7 @@
 package com.reandroid.lib.arsc.value;
 
+import com.reandroid.lib.arsc.array.StagedAliasEntryArray;
+import com.reandroid.lib.arsc.base.Block;
 import com.reandroid.lib.arsc.item.ByteArray;
 import com.reandroid.lib.json.JSONConvert;
 import com.reandroid.lib.json.JSONObject;
@@ -12,7 +14,8 @@ public class StagedAliasEntry extends ByteArray implements JSONConvert<JSONObjec
         return getInteger(0);
     }
     public void setStagedResId(int id){
-         putInteger(0, id);
+        putInteger(0, id);
+        onStagedResIdChanged();
     }
     public int getFinalizedResId(){
         return getInteger(4);
@@ -21,6 +24,16 @@ public class StagedAliasEntry extends ByteArray implements JSONConvert<JSONObjec
         putInteger(4, id);
     }
     @Override
+    protected void onBytesChanged(){
+        onStagedResIdChanged();
+    }
+    private void onStagedResIdChanged(){
+        Block parent=getParent();
+        if(parent instanceof StagedAliasEntryArray){
+            ((StagedAliasEntryArray)parent).onStagedResIdChanged();
+        }
+    }
+    @Override
     public String toString(){
         return "stagedResId="+String.format("0x%08x",getStagedResId())
                 +", finalizedResId="+String.format("0x%08x",getFinalizedResId());
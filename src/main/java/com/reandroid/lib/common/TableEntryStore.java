@@ -19,15 +19,16 @@ import com.reandroid.lib.arsc.chunk.PackageBlock;
 import com.reandroid.lib.arsc.chunk.TableBlock;
 import com.reandroid.lib.arsc.group.EntryGroup;
 import com.reandroid.lib.arsc.item.TableString;
+import com.reandroid.lib.arsc.util.IntMap;
 import com.reandroid.lib.arsc.value.EntryBlock;
 import com.reandroid.lib.arsc.value.StagedAliasEntry;
 
 import java.util.*;
 
 public class TableEntryStore implements EntryStore{
-    private final Map<Integer, Set<PackageBlock>> mPackagesMap;
+    private final IntMap<Set<PackageBlock>> mPackagesMap;
     public TableEntryStore(){
-        this.mPackagesMap = new HashMap<>();
+        this.mPackagesMap = new IntMap<>();
     }
 
     public String getEntryName(int resourceId){
@@ -66,16 +67,26 @@ public class TableEntryStore implements EntryStore{
         packageBlockSet.add(packageBlock);
     }
     private Set<PackageBlock> getOrCreate(int packageId){
-        Integer id=packageId;
-        Set<PackageBlock> packageBlockSet=mPackagesMap.get(id);
+        Set<PackageBlock> packageBlockSet=mPackagesMap.get(packageId);
         if(packageBlockSet==null){
             packageBlockSet=new HashSet<>();
-            mPackagesMap.put(id, packageBlockSet);
+            mPackagesMap.put(packageId, packageBlockSet);
         }
         return packageBlockSet;
     }
     @Override
     public EntryGroup searchEntryGroup(String packageName, String type, String name) {
+        for(Set<PackageBlock> packageBlockSet : mPackagesMap.values()){
+            for(PackageBlock packageBlock:packageBlockSet){
+                if(packageName!=null && !packageName.equals(packageBlock.getName())){
+                    continue;
+                }
+                EntryGroup entryGroup=packageBlock.searchEntryGroup(type, name);
+                if(entryGroup!=null){
+                    return entryGroup;
+                }
+            }
+        }
         return null;
     }
     private Set<TableBlock> getTableBlocks(int packageId) {
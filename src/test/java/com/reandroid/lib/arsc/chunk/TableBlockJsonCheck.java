@@ -0,0 +1,47 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.lib.arsc.chunk;
+
+import com.reandroid.lib.common.Frameworks;
+import com.reandroid.lib.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Regression check run by gradle task jsonRoundTripCheck: the bundled framework table
+ * converted to json, back to table and to bytes must give the same json again
+ * */
+public class TableBlockJsonCheck {
+    public static void main(String[] args) throws IOException {
+        TableBlock tableBlock=Frameworks.getAndroid();
+        String expect=tableBlock.toJson().toString();
+
+        TableBlock fromJson=new TableBlock();
+        fromJson.fromJson(new JSONObject(expect));
+        fromJson.refresh();
+        check("fromJson", expect, fromJson.toJson().toString());
+
+        TableBlock reloaded=TableBlock.load(new ByteArrayInputStream(fromJson.getBytes()));
+        check("reload", expect, reloaded.toJson().toString());
+    }
+    private static void check(String name, String expect, String actual){
+        if(!expect.equals(actual)){
+            throw new IllegalStateException("Json round trip failed: "+name);
+        }
+        System.out.println("Json round trip ok: "+name);
+    }
+}